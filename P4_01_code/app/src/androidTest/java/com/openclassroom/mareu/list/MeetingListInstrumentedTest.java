@@ -3,6 +3,7 @@ package com.openclassroom.mareu.list;
 import android.content.Context;
 import android.widget.DatePicker;
 
+import androidx.test.espresso.IdlingRegistry;
 import androidx.test.espresso.contrib.PickerActions;
 import androidx.test.espresso.contrib.RecyclerViewActions;
 import androidx.test.espresso.matcher.ViewMatchers;
@@ -16,10 +17,12 @@ import com.openclassroom.mareu.model.Meeting;
 import com.openclassroom.mareu.service.MeetingApiService;
 import com.openclassroom.mareu.utils.CheckMeetingSubject;
 import com.openclassroom.mareu.utils.DeleteMeetingViewAction;
+import com.openclassroom.mareu.utils.MeetingServiceIdlingResource;
 
 import org.hamcrest.Matcher;
 import org.hamcrest.Matchers;
 import org.hamcrest.core.AllOf;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -51,13 +54,22 @@ public class MeetingListInstrumentedTest {
     public ActivityTestRule<MeetingListActivity> mActivityRule =
             new ActivityTestRule<>(MeetingListActivity.class);
 
+    private MeetingServiceIdlingResource mIdlingResource;
+
     @Before
     public void setUp() {
         MeetingListActivity activity = mActivityRule.getActivity();
         mMeetingApiService = DI.getMeetingApiService();
+        mIdlingResource = new MeetingServiceIdlingResource(DI.getMeetingApiServiceAsync());
+        IdlingRegistry.getInstance().register(mIdlingResource);
         assertThat(activity, notNullValue());
     }
 
+    @After
+    public void tearDown() {
+        IdlingRegistry.getInstance().unregister(mIdlingResource);
+    }
+
     @Test
     public void meetingList_CheckAppContext() {
         // Context of the app under test.
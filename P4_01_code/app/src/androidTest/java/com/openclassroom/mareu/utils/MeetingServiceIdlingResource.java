@@ -0,0 +1,28 @@
+package com.openclassroom.mareu.utils;
+
+import androidx.test.espresso.IdlingResource;
+
+import com.openclassroom.mareu.service.MeetingApiServiceAsync;
+
+public class MeetingServiceIdlingResource implements IdlingResource {
+    private final MeetingApiServiceAsync mService;
+
+    public MeetingServiceIdlingResource(MeetingApiServiceAsync service) {
+        mService = service;
+    }
+
+    @Override
+    public String getName() {
+        return "MeetingApiServiceAsync";
+    }
+
+    @Override
+    public boolean isIdleNow() {
+        return mService.isIdle();
+    }
+
+    @Override
+    public void registerIdleTransitionCallback(ResourceCallback callback) {
+        mService.setIdleListener(callback::onTransitionToIdle);
+    }
+}
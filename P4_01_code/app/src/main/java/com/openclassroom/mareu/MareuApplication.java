@@ -0,0 +1,55 @@
+package com.openclassroom.mareu;
+
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.widget.Toast;
+
+import com.openclassroom.mareu.di.DI;
+import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.service.MeetingApiService;
+import com.openclassroom.mareu.service.MeetingApiServiceArchiving;
+import com.openclassroom.mareu.service.MeetingApiServiceCached;
+import com.openclassroom.mareu.service.MeetingApiServiceConcurrent;
+import com.openclassroom.mareu.service.MeetingApiServicePersistent;
+import com.openclassroom.mareu.service.MeetingArchive;
+import com.openclassroom.mareu.service.MeetingGenerator;
+import com.openclassroom.mareu.service.MeetingListGeneratorDummy;
+
+import java.io.File;
+
+public class MareuApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        // The store is read on the service thread, the first screen is drawn meanwhile
+        DI.openMeetingApiService(this::openMeetingApiService, mainHandler::post);
+        DI.getMeetingApiServiceAsync().setErrorCallback(e -> {
+            Log.e("MareuApplication", "Meeting service call failed", e);
+            Toast.makeText(this, R.string.service_failed, Toast.LENGTH_LONG).show();
+        });
+    }
+
+    private MeetingApiService openMeetingApiService() {
+        // Debug builds can start with a large generated store: ./gradlew installDebug -PgeneratedMeetings=100000
+        Iterable<Meeting> firstLaunchMeetings = BuildConfig.GENERATED_MEETINGS > 0
+                ? new MeetingGenerator(BuildConfig.GENERATED_MEETINGS).count(BuildConfig.GENERATED_MEETINGS)
+                : MeetingListGeneratorDummy.getNewMeetingList();
+        MeetingApiServicePersistent service = new MeetingApiServicePersistent(new File(getFilesDir(), "meetings"), firstLaunchMeetings);
+        MeetingApiService store = new MeetingApiServiceCached(service);
+        // Meetings ended more than RETENTION_DAYS ago leave the store for the archive, above the cache so it sees them go.
+        // Debug builds keep them all unless asked: ./gradlew installDebug -PretentionDays=30
+        if (BuildConfig.RETENTION_DAYS > 0) {
+            MeetingArchive archive = new MeetingArchive(new File(getFilesDir(), "archive"));
+            store = new MeetingApiServiceArchiving(store, archive, BuildConfig.RETENTION_DAYS);
+            DI.setMeetingArchive(archive);
+        }
+        // Background jobs may change meetings through DI.getMeetingApiService() while the UI reads them,
+        // changes are synced to storage once the UI can read again
+        service.setFlushDeferred(true);
+        return new MeetingApiServiceConcurrent(store, service::flush);
+    }
+}
@@ -18,7 +18,9 @@ import android.widget.TimePicker;
 import android.widget.Toast;
 
 import com.openclassroom.mareu.databinding.ActivityMeetingAddBinding;
+import com.openclassroom.mareu.di.DI;
 import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.model.MeetingTime;
 import com.google.android.material.chip.ChipDrawable;
 
 import java.text.SimpleDateFormat;
@@ -58,18 +60,32 @@ public class MeetingAddActivity extends AppCompatActivity implements DatePickerD
         else {
             DatePicker datePicker = mDatePickerDialog.getDatePicker();
             Meeting meeting = new Meeting(
-                    getString(R.string.format_date, datePicker.getDayOfMonth(), datePicker.getMonth() + 1, datePicker.getYear()),
-                    getString(R.string.format_hour, mTimePicker != null ? mTimePicker.getCurrentHour() : getResources().getInteger(R.integer.default_hour), mTimePicker != null ? mTimePicker.getCurrentMinute() : getResources().getInteger(R.integer.default_minute)),
-                    getString(R.string.format_room, mBinding.meetingRoom.getSelectedItemPosition() + 1),
+                    MeetingTime.of(datePicker.getYear(), datePicker.getMonth() + 1, datePicker.getDayOfMonth(),
+                            mTimePicker != null ? mTimePicker.getCurrentHour() : getResources().getInteger(R.integer.default_hour),
+                            mTimePicker != null ? mTimePicker.getCurrentMinute() : getResources().getInteger(R.integer.default_minute)),
+                    getResources().getIntArray(R.array.meeting_durations_array)[mBinding.meetingDuration.getSelectedItemPosition()],
+                    mBinding.meetingRoom.getSelectedItemPosition() + 1,
                     mBinding.meetingSubject.getText().toString(),
                     Arrays.asList(mBinding.meetingParticipants.getText().toString().split("\\s"))
             );
-            Toast.makeText(MeetingAddActivity.this.getApplicationContext(), getString(R.string.add_meeting_toast_create), Toast.LENGTH_SHORT).show();
+            mBinding.accept.setEnabled(false);
+            DI.getMeetingApiServiceAsync().getConflicts(meeting, conflicts -> {
+                mBinding.accept.setEnabled(true);
+                if (isFinishing())
+                    return;
+                if (!conflicts.isEmpty()) {
+                    Meeting conflict = conflicts.get(0);
+                    Toast.makeText(getApplicationContext(), getString(R.string.room_already_booked, conflict.getDate(),
+                            conflict.getTime(), MeetingTime.formatTime(conflict.getEnd()), conflict.getSubject()), Toast.LENGTH_LONG).show();
+                    return;
+                }
+                Toast.makeText(MeetingAddActivity.this.getApplicationContext(), getString(R.string.add_meeting_toast_create), Toast.LENGTH_SHORT).show();
 
-            Intent data = new Intent();
-            data.putExtra("meeting", meeting);
-            setResult(MeetingListActivity.RETURN_CODE_MEETING_CREATED, data);
-            finish();
+                Intent data = new Intent();
+                data.putExtra("meeting", meeting);
+                setResult(MeetingListActivity.RETURN_CODE_MEETING_CREATED, data);
+                finish();
+            });
         }
     }
 
@@ -145,6 +161,13 @@ public class MeetingAddActivity extends AppCompatActivity implements DatePickerD
                 R.array.meeting_room_names_array, android.R.layout.simple_spinner_item);
         adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
         spinner.setAdapter(adapter);
+
+        Spinner durationSpinner = mBinding.meetingDuration;
+        ArrayAdapter<CharSequence> durationAdapter = ArrayAdapter.createFromResource(this,
+                R.array.meeting_duration_names_array, android.R.layout.simple_spinner_item);
+        durationAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        durationSpinner.setAdapter(durationAdapter);
+        durationSpinner.setSelection(getResources().getInteger(R.integer.default_duration_position));
     }
 
     @Override
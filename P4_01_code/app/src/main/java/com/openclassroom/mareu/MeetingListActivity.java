@@ -3,13 +3,17 @@ package com.openclassroom.mareu;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.SearchView;
 import androidx.fragment.app.FragmentManager;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import android.content.Context;
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.Menu;
 import android.view.MenuInflater;
 import android.view.MenuItem;
@@ -23,18 +27,47 @@ import com.openclassroom.mareu.di.DI;
 import com.openclassroom.mareu.dialog.FilterDialogFragment;
 import com.openclassroom.mareu.model.Meeting;
 import com.openclassroom.mareu.recyclerview.MeetingListRecyclerViewAdapter;
-import com.openclassroom.mareu.service.MeetingApiService;
+import com.openclassroom.mareu.recyclerview.MeetingPagingAdapter;
+import com.openclassroom.mareu.recyclerview.MeetingViewAdapter;
+import com.openclassroom.mareu.service.MeetingApiServiceAsync;
+import com.openclassroom.mareu.service.MeetingArchive;
+import com.openclassroom.mareu.service.MeetingFilter;
+import com.openclassroom.mareu.service.transfer.MeetingCsvWriter;
+import com.openclassroom.mareu.service.transfer.MeetingICalendarWriter;
+import com.openclassroom.mareu.service.transfer.MeetingImportException;
+import com.openclassroom.mareu.service.transfer.MeetingTransfer;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 public class MeetingListActivity extends AppCompatActivity implements IFilterCallback, IDeleteMeeting {
 
     private RecyclerView mMeetingsRecyclerView;
-    private MeetingApiService mMeetingApiService;
+    private MeetingApiServiceAsync mMeetingApiService;
+    private MeetingListRecyclerViewAdapter mListAdapter;
+    private MeetingPagingAdapter mPagingAdapter;
+    private MeetingViewAdapter mViewAdapter;
+    private MeetingApiServiceAsync.Subscription mFilterView;
+    private boolean mFilterActive;
     private ActivityMeetingListBinding mBinding;
+    private final Handler mSearchHandler = new Handler(Looper.getMainLooper());
+    private Runnable mPendingSearch;
+    private int mSearchGeneration;
 
     static public final int REQUEST_CREATE_NEW_MEETING = 1;
     static public final int RETURN_CODE_MEETING_CREATED = 2;
+    static private final int REQUEST_IMPORT = 3;
+    static private final int REQUEST_EXPORT_CSV = 4;
+    static private final int REQUEST_EXPORT_ICALENDAR = 5;
+    static private final long SEARCH_DELAY_MS = 250;
+    static private final int SEARCH_LIMIT = 200;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -59,19 +92,119 @@ public class MeetingListActivity extends AppCompatActivity implements IFilterCal
     public boolean onCreateOptionsMenu(Menu menu) {
         MenuInflater inflater = getMenuInflater();
         inflater.inflate(R.menu.menu, menu);
+        SearchView searchView = (SearchView) menu.findItem(R.id.search_menu).getActionView();
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                search(query, 0);
+                return true;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                search(newText, SEARCH_DELAY_MS);
+                return true;
+            }
+        });
         return true;
     }
 
+    /**
+     * Searches query once the user stopped typing for delay ms, an empty query shows all meetings back.
+     */
+    private void search(String query, long delay) {
+        mSearchHandler.removeCallbacks(mPendingSearch);
+        int generation = ++mSearchGeneration;
+        mPendingSearch = () -> {
+            String trimmed = query.trim();
+            if (trimmed.isEmpty()) {
+                showAllMeetings();
+                return;
+            }
+            mFilterActive = true;
+            closeFilterView();
+            mMeetingApiService.searchMeetings(trimmed, SEARCH_LIMIT, list -> {
+                // Drop results of a query the user kept typing after
+                if (generation == mSearchGeneration)
+                    setRecyclerViewList(list);
+            });
+        };
+        mSearchHandler.postDelayed(mPendingSearch, delay);
+    }
+
+    @Override
+    protected void onDestroy() {
+        mSearchHandler.removeCallbacks(mPendingSearch);
+        closeFilterView();
+        mPagingAdapter.close();
+        super.onDestroy();
+    }
+
     private void initRecyclerView() {
         Context context = mMeetingsRecyclerView.getContext();
         mMeetingsRecyclerView.setLayoutManager(new LinearLayoutManager(context));
-        mMeetingApiService = DI.getMeetingApiService();
-        mMeetingsRecyclerView.setAdapter(new MeetingListRecyclerViewAdapter(getApplicationContext(), mMeetingApiService.getMeetings(), this));
+        mMeetingApiService = DI.getMeetingApiServiceAsync();
+        mListAdapter = new MeetingListRecyclerViewAdapter(getApplicationContext(), new ArrayList<>(), this);
+        mPagingAdapter = new MeetingPagingAdapter(getApplicationContext(), mMeetingApiService, this);
+        mViewAdapter = new MeetingViewAdapter(getApplicationContext(), this);
+        // Followed even while a filter is shown, so that it is up to date when the filter is reset
+        mPagingAdapter.open();
+        showAllMeetings();
+    }
+
+    /**
+     * Shows every meeting sorted by time, loaded page by page as the list scrolls.
+     */
+    private void showAllMeetings() {
+        mFilterActive = false;
+        closeFilterView();
+        if (mMeetingsRecyclerView.getAdapter() != mPagingAdapter)
+            mMeetingsRecyclerView.setAdapter(mPagingAdapter);
+    }
+
+    /**
+     * Shows the meetings of filter, kept up to date as meetings are created or removed.
+     */
+    private void showFilterView(MeetingFilter filter) {
+        closeFilterView();
+        mFilterActive = true;
+        if (mMeetingsRecyclerView.getAdapter() != mViewAdapter)
+            mMeetingsRecyclerView.setAdapter(mViewAdapter);
+        mViewAdapter.setMeetings(new ArrayList<>());
+        mFilterView = mMeetingApiService.observe(filter, mViewAdapter::setMeetings, mViewAdapter);
+    }
+
+    private void closeFilterView() {
+        if (mFilterView != null) {
+            mFilterView.close();
+            mFilterView = null;
+        }
+    }
+
+    /**
+     * Shows the last archived meetings, read from the archive on the service thread.
+     */
+    private void showArchive() {
+        // The archive is set while the service is opened, which runs before this call
+        mMeetingApiService.submit(() -> {
+            MeetingArchive archive = DI.getMeetingArchive();
+            return archive != null ? archive.getMeetingsBefore(Long.MAX_VALUE, Integer.MAX_VALUE, SEARCH_LIMIT) : null;
+        }, list -> {
+            if (list == null)
+                return;
+            mFilterActive = true;
+            closeFilterView();
+            setRecyclerViewList(list);
+        });
     }
 
+    /**
+     * Shows the result of a search.
+     */
     private void setRecyclerViewList(List<Meeting> list) {
-        MeetingListRecyclerViewAdapter adapter = (MeetingListRecyclerViewAdapter) mMeetingsRecyclerView.getAdapter();
-        adapter.setList(list);
+        if (mMeetingsRecyclerView.getAdapter() != mListAdapter)
+            mMeetingsRecyclerView.setAdapter(mListAdapter);
+        mListAdapter.setList(list);
     }
 
     @Override
@@ -79,11 +212,57 @@ public class MeetingListActivity extends AppCompatActivity implements IFilterCal
         super.onActivityResult(requestCode, resultCode, data);
         if (requestCode == REQUEST_CREATE_NEW_MEETING && resultCode == RETURN_CODE_MEETING_CREATED && data != null) {
             Meeting meeting = data.getExtras().getParcelable("meeting");
-            mMeetingApiService.createMeeting(meeting);
-            mMeetingsRecyclerView.getAdapter().notifyItemInserted(mMeetingApiService.indexOfMeeting(meeting));
+            mMeetingApiService.createMeeting(meeting, null);
+        } else if (resultCode == RESULT_OK && data != null && data.getData() != null) {
+            if (requestCode == REQUEST_IMPORT)
+                importMeetings(data.getData());
+            else if (requestCode == REQUEST_EXPORT_CSV || requestCode == REQUEST_EXPORT_ICALENDAR)
+                exportMeetings(data.getData(), requestCode == REQUEST_EXPORT_CSV);
         }
     }
 
+    /**
+     * Creates the meetings of a CSV or iCalendar document on the service thread, by batches. A
+     * failure keeps the batches created before it, the message tells how many and where it stopped.
+     */
+    private void importMeetings(Uri uri) {
+        mMeetingApiService.submit(() -> {
+            try (InputStream in = getContentResolver().openInputStream(uri)) {
+                int count = MeetingTransfer.importMeetings(
+                        MeetingTransfer.reader(new InputStreamReader(in, StandardCharsets.UTF_8)), DI.getMeetingApiService());
+                return getString(R.string.import_done_format, count);
+            } catch (MeetingImportException e) {
+                return e.getLine() > 0
+                        ? getString(R.string.import_stopped_at_line_format, e.getImported(), e.getLine())
+                        : getString(R.string.import_stopped_format, e.getImported());
+            } catch (IOException | RuntimeException e) {
+                return getString(R.string.transfer_failed);
+            }
+        }, message -> {
+            Toast.makeText(getApplicationContext(), message, Toast.LENGTH_LONG).show();
+        });
+    }
+
+    /**
+     * Writes every meeting to a document on the service thread, page by page.
+     */
+    private void exportMeetings(Uri uri, boolean csv) {
+        mMeetingApiService.submit(() -> {
+            try (OutputStream out = getContentResolver().openOutputStream(uri)) {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                return MeetingTransfer.exportMeetings(DI.getMeetingApiService(),
+                        csv ? new MeetingCsvWriter(writer) : new MeetingICalendarWriter(writer));
+            } catch (IOException | RuntimeException e) {
+                return -1;
+            }
+        }, count -> showTransferResult(R.string.export_done_format, count));
+    }
+
+    private void showTransferResult(int format, int count) {
+        String message = count < 0 ? getString(R.string.transfer_failed) : getString(format, count);
+        Toast.makeText(getApplicationContext(), message, Toast.LENGTH_SHORT).show();
+    }
+
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         // Handle item selection
@@ -93,19 +272,40 @@ public class MeetingListActivity extends AppCompatActivity implements IFilterCal
             filterDialogFragment.show(fm, "fragment_edit_name");
             return true;
         }
+        if (item.getItemId() == R.id.archive_menu) {
+            showArchive();
+            return true;
+        }
+        if (item.getItemId() == R.id.import_menu) {
+            Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+            intent.addCategory(Intent.CATEGORY_OPENABLE);
+            intent.setType("*/*");
+            intent.putExtra(Intent.EXTRA_MIME_TYPES, new String[]{"text/csv", "text/comma-separated-values", "text/calendar", "text/plain"});
+            startActivityForResult(intent, REQUEST_IMPORT);
+            return true;
+        }
+        if (item.getItemId() == R.id.export_csv_menu || item.getItemId() == R.id.export_icalendar_menu) {
+            boolean csv = item.getItemId() == R.id.export_csv_menu;
+            Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
+            intent.addCategory(Intent.CATEGORY_OPENABLE);
+            intent.setType(csv ? "text/csv" : "text/calendar");
+            intent.putExtra(Intent.EXTRA_TITLE, csv ? "reunions.csv" : "reunions.ics");
+            startActivityForResult(intent, csv ? REQUEST_EXPORT_CSV : REQUEST_EXPORT_ICALENDAR);
+            return true;
+        }
         return super.onOptionsItemSelected(item);
     }
 
     @Override
-    public void onValidateFilter(String room, String date) {
+    public void onValidateFilter(MeetingFilter filter) {
         Toast.makeText(getApplicationContext(), R.string.validate, Toast.LENGTH_SHORT).show();
 
-        setRecyclerViewList(mMeetingApiService.getFilteredList(room, date));
+        showFilterView(filter);
     }
 
     @Override
     public void onResetFilter() {
-        setRecyclerViewList(mMeetingApiService.getMeetings());
+        showAllMeetings();
         Toast.makeText(getApplicationContext(), R.string.reset, Toast.LENGTH_SHORT).show();
     }
 
@@ -115,15 +315,15 @@ public class MeetingListActivity extends AppCompatActivity implements IFilterCal
         adb.setCancelable(false);
         adb.setTitle(getString(R.string.delete_meeting_confirmation_title));
         adb.setPositiveButton(R.string.ok, (dialog, which) -> {
-            MeetingListRecyclerViewAdapter adapter = (MeetingListRecyclerViewAdapter) mMeetingsRecyclerView.getAdapter();
-            List<Meeting> list = adapter.getList();
-            int index = list.indexOf(meeting);
-            if (list != mMeetingApiService.getMeetings()) // Remove from the mMeetingList if the list is filtered
-                mMeetingApiService.removeMeeting(meeting);
-            list.remove(meeting);
-            adapter.notifyItemRemoved(index);
-
-            Toast.makeText(getApplicationContext(), getString(R.string.delete_meeting_toast), Toast.LENGTH_SHORT).show();
+            mMeetingApiService.removeMeeting(meeting, result -> {
+                // The views follow the removal, only search and archive results are copies
+                if (mFilterActive && mFilterView == null) {
+                    List<Meeting> list = new ArrayList<>(mListAdapter.getList());
+                    if (list.remove(meeting))
+                        mListAdapter.setList(list);
+                }
+                Toast.makeText(getApplicationContext(), getString(R.string.delete_meeting_toast), Toast.LENGTH_SHORT).show();
+            });
         });
         adb.setNegativeButton(R.string.delete_meeting_cancel, (dialog, which) ->
                 Toast.makeText(getApplicationContext(), getString(R.string.cancel_delete_meeting_toast), Toast.LENGTH_SHORT).show());
@@ -1,7 +1,9 @@
 package com.openclassroom.mareu.callback;
 
+import com.openclassroom.mareu.service.MeetingFilter;
+
 public interface IFilterCallback {
-    void onValidateFilter(String room, String date);
+    void onValidateFilter(MeetingFilter filter);
 
     void onResetFilter();
 }
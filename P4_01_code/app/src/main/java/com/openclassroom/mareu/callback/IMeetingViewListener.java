@@ -0,0 +1,15 @@
+package com.openclassroom.mareu.callback;
+
+import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.service.MeetingChangeSet;
+
+public interface IMeetingViewListener {
+    void onMeetingInserted(int position, Meeting meeting);
+
+    void onMeetingRemoved(int position, Meeting meeting);
+
+    /**
+     * Every change of a batch at once, instead of one call per meeting.
+     */
+    void onMeetingsChanged(MeetingChangeSet changes);
+}
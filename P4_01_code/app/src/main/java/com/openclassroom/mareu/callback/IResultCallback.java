@@ -0,0 +1,5 @@
+package com.openclassroom.mareu.callback;
+
+public interface IResultCallback<T> {
+    void onResult(T result);
+}
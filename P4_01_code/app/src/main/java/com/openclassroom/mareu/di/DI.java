@@ -1,18 +1,60 @@
 package com.openclassroom.mareu.di;
 
 import com.openclassroom.mareu.service.MeetingApiService;
-import com.openclassroom.mareu.service.MeetingApiServiceDummy;
+import com.openclassroom.mareu.service.MeetingApiServiceAsync;
+import com.openclassroom.mareu.service.MeetingApiServiceConcurrent;
+import com.openclassroom.mareu.service.MeetingApiServiceIndexed;
+import com.openclassroom.mareu.service.MeetingArchive;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 
 public class DI {
 
-    private static final MeetingApiService meetingApiService = new MeetingApiServiceDummy();
+    private static MeetingApiService meetingApiService = new MeetingApiServiceConcurrent(new MeetingApiServiceIndexed());
+    private static volatile MeetingApiServiceAsync meetingApiServiceAsync;
+    private static volatile MeetingArchive meetingArchive;
 
+    /**
+     * @return the service, waiting for it to be opened: not to be called from the main thread
+     */
     public static MeetingApiService getMeetingApiService() {
-        return meetingApiService;
+        MeetingApiServiceAsync async = meetingApiServiceAsync;
+        return async != null ? async.getService() : meetingApiService;
+    }
+
+    /**
+     * The service used from the UI, running the calls to {@link #getMeetingApiService()} off the main
+     * thread. It is usable at once, its calls wait for the service to be opened.
+     */
+    public static MeetingApiServiceAsync getMeetingApiServiceAsync() {
+        return meetingApiServiceAsync;
+    }
+
+    /**
+     * @param opener opens the service on the thread of the asynchronous service
+     * @param resultExecutor executor delivering the results of the asynchronous service
+     */
+    public static void openMeetingApiService(Callable<MeetingApiService> opener, Executor resultExecutor) {
+        if (meetingApiServiceAsync != null)
+            meetingApiServiceAsync.shutdown();
+        meetingApiServiceAsync = new MeetingApiServiceAsync(opener, resultExecutor);
+    }
+
+    /**
+     * @return the past meetings moved out of {@link #getMeetingApiService()}, null if they are kept in
+     * it or until the service is opened
+     */
+    public static MeetingArchive getMeetingArchive() {
+        return meetingArchive;
+    }
+
+    public static void setMeetingArchive(MeetingArchive archive) {
+        meetingArchive = archive;
     }
 
     public static MeetingApiService getNewMeetingApiService() {
-        return new MeetingApiServiceDummy();
+        return new MeetingApiServiceIndexed();
     }
 
 }
@@ -8,23 +8,30 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.DialogFragment;
 
+import android.text.TextUtils;
 import android.view.LayoutInflater;
-import android.widget.ArrayAdapter;
 import android.widget.DatePicker;
-import android.widget.Spinner;
 
 import com.openclassroom.mareu.R;
 import com.openclassroom.mareu.callback.IFilterCallback;
 import com.openclassroom.mareu.databinding.FragmentDialogFilterBinding;
+import com.openclassroom.mareu.model.MeetingTime;
+import com.openclassroom.mareu.service.MeetingFilter;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
 import java.util.Locale;
 
 public class FilterDialogFragment extends DialogFragment implements DatePickerDialog.OnDateSetListener {
 
     private FragmentDialogFilterBinding mBinding;
     private DatePickerDialog mDatePickerDialog;
+    private DatePickerDialog mDateToPickerDialog;
+    private boolean mDateToChosen;
+    private String[] mRoomNames;
+    private boolean[] mCheckedRooms;
     private IFilterCallback mIFilterCallback;
 
     public static FilterDialogFragment newInstance(String title, IFilterCallback callback) {
@@ -41,31 +48,73 @@ public class FilterDialogFragment extends DialogFragment implements DatePickerDi
         builder.setTitle(R.string.choose_filter);
         builder.setCancelable(false);
         builder.setView(mBinding.getRoot())
-                .setPositiveButton(R.string.ok, (dialog, id) -> {
-                    DatePicker picker = mDatePickerDialog.getDatePicker();
-                    mIFilterCallback.onValidateFilter(
-                            String.valueOf(mBinding.filterRoom.getSelectedItemPosition() + 1),
-                            getString(R.string.format_date, picker.getDayOfMonth(), picker.getMonth() + 1, picker.getYear())
-                    );
-
-                })
+                .setPositiveButton(R.string.ok, (dialog, id) ->
+                        mIFilterCallback.onValidateFilter(getFilter()))
                 .setNegativeButton(R.string.reset, (dialog, id) ->
                         mIFilterCallback.onResetFilter());
-        setSpinner();
-        setDatePickerDialog();
+        setRoomChoice();
+        setDatePickerDialogs();
         setCancelable(false);
         return builder.create();
     }
 
-    private void setSpinner() {
-        Spinner spinner = mBinding.filterRoom;
-        ArrayAdapter<CharSequence> adapter = ArrayAdapter.createFromResource(getContext(),
-                R.array.meeting_room_names_array, android.R.layout.simple_spinner_item);
-        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
-        spinner.setAdapter(adapter);
+    private MeetingFilter getFilter() {
+        List<Integer> rooms = new ArrayList<>();
+        for (int i = 0; i < mCheckedRooms.length; i++) {
+            if (mCheckedRooms[i])
+                rooms.add(i + 1);
+        }
+        int[] roomNumbers = new int[rooms.size()];
+        for (int i = 0; i < roomNumbers.length; i++)
+            roomNumbers[i] = rooms.get(i);
+
+        MeetingFilter filter = MeetingFilter.any()
+                .rooms(roomNumbers)
+                .participant(mBinding.filterParticipant.getText().toString())
+                .subject(mBinding.filterSubject.getText().toString());
+        if (!mBinding.filterAnyDate.isChecked()) {
+            int from = toEpochDay(mDatePickerDialog.getDatePicker());
+            int to = toEpochDay(mDateToPickerDialog.getDatePicker());
+            filter = filter.days(Math.min(from, to), Math.max(from, to));
+        }
+        return filter;
+    }
+
+    private static int toEpochDay(DatePicker picker) {
+        return MeetingTime.toEpochDay(picker.getYear(), picker.getMonth() + 1, picker.getDayOfMonth());
+    }
+
+    /**
+     * Room 1 is checked first, none checked lists every room.
+     */
+    private void setRoomChoice() {
+        mRoomNames = getResources().getStringArray(R.array.meeting_room_names_array);
+        mCheckedRooms = new boolean[mRoomNames.length];
+        mCheckedRooms[0] = true;
+        setRoomText();
+        mBinding.filterRoom.setOnClickListener(v -> new AlertDialog.Builder(getContext())
+                .setTitle(R.string.filter_choose_rooms)
+                .setMultiChoiceItems(mRoomNames, mCheckedRooms, (dialog, which, isChecked) -> {
+                    mCheckedRooms[which] = isChecked;
+                    setRoomText();
+                })
+                .setPositiveButton(R.string.ok, null)
+                .show());
+    }
+
+    private void setRoomText() {
+        List<String> checked = new ArrayList<>();
+        for (int i = 0; i < mRoomNames.length; i++) {
+            if (mCheckedRooms[i])
+                checked.add(mRoomNames[i]);
+        }
+        mBinding.filterRoom.setText(checked.isEmpty() ? getString(R.string.filter_all_rooms) : TextUtils.join(", ", checked));
     }
 
-    private void setDatePickerDialog() {
+    /**
+     * The last day follows the first one until it is chosen, filtering a single day by default.
+     */
+    private void setDatePickerDialogs() {
         Calendar calendar = Calendar.getInstance();
         mDatePickerDialog = new DatePickerDialog(getContext(), FilterDialogFragment.this,
                 calendar.get(Calendar.YEAR),
@@ -73,20 +122,46 @@ public class FilterDialogFragment extends DialogFragment implements DatePickerDi
                 calendar.get(Calendar.DAY_OF_MONTH)
         );
         mDatePickerDialog.setCancelable(false);
+        mDateToPickerDialog = new DatePickerDialog(getContext(), (view, year, month, dayOfMonth) -> {
+            mDateToChosen = true;
+            setDateTo(view);
+        },
+                calendar.get(Calendar.YEAR),
+                calendar.get(Calendar.MONTH),
+                calendar.get(Calendar.DAY_OF_MONTH)
+        );
+        mDateToPickerDialog.setCancelable(false);
         setDate(mDatePickerDialog.getDatePicker());
+        setDateTo(mDateToPickerDialog.getDatePicker());
         mBinding.filterDate.setOnClickListener(v -> mDatePickerDialog.show());
+        mBinding.filterDateTo.setOnClickListener(v -> mDateToPickerDialog.show());
+        mBinding.filterAnyDate.setOnCheckedChangeListener((button, isChecked) -> {
+            mBinding.filterDate.setEnabled(!isChecked);
+            mBinding.filterDateTo.setEnabled(!isChecked);
+        });
     }
 
-    private void setDate(DatePicker date) {
+    private String formatDate(DatePicker date) {
         Calendar calendar = Calendar.getInstance();
         calendar.set(date.getYear(), date.getMonth(), date.getDayOfMonth());
         SimpleDateFormat formatter = new SimpleDateFormat(getString(R.string.display_date_format), Locale.FRANCE);
-        String output = formatter.format(calendar.getTime());
-        mBinding.filterDate.setText(output);
+        return formatter.format(calendar.getTime());
+    }
+
+    private void setDate(DatePicker date) {
+        mBinding.filterDate.setText(formatDate(date));
+    }
+
+    private void setDateTo(DatePicker date) {
+        mBinding.filterDateTo.setText(getString(R.string.filter_date_to_format, formatDate(date)));
     }
 
     @Override
     public void onDateSet(DatePicker view, int year, int month, int dayOfMonth) {
         setDate(view);
+        if (!mDateToChosen) {
+            mDateToPickerDialog.updateDate(year, month, dayOfMonth);
+            setDateTo(mDateToPickerDialog.getDatePicker());
+        }
     }
-}
\ No newline at end of file
+}
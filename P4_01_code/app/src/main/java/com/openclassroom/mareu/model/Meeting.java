@@ -3,29 +3,86 @@ package com.openclassroom.mareu.model;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * A room booking. Immutable: the indexes of a service file meetings by their fields, a changed
+ * meeting is a new meeting with the same id.
+ */
 public class Meeting implements Parcelable {
-    private String mDate;
-    private String mTime;
-    private String mRoom;
-    private String mSubject;
-    private List<String> mParticipants;
-
-    public Meeting(String date, String time, String room, String subject, List<String> participants) {
-        mDate = date;
-        mTime = time;
+    /**
+     * Highest room number and participant count, storage keeps each of them in 16 bits.
+     */
+    public static final int MAX_ROOM = 0xFFFF;
+    public static final int MAX_PARTICIPANTS = 0xFFFF;
+
+    /**
+     * Order of the meetings by start then id, the order of every list of meetings of a service.
+     */
+    public static final Comparator<Meeting> BY_START = (a, b) -> a.getStart() != b.getStart()
+            ? Long.compare(a.getStart(), b.getStart())
+            : Integer.compare(a.getId(), b.getId());
+
+    private static final AtomicInteger sLastId = new AtomicInteger();
+
+    private final int mId;
+    private final long mStart;
+    private final int mDuration;
+    private final int mRoom;
+    private final String mSubject;
+    private final int[] mParticipants;
+
+    /**
+     * @param start    minutes since epoch, see {@link MeetingTime#of(int, int, int, int, int)}
+     * @param duration duration in minutes
+     * @param room     room number, starting at 1, at most {@link #MAX_ROOM}
+     * @throws IllegalArgumentException if room or the number of participants is out of range
+     */
+    public Meeting(long start, int duration, int room, String subject, List<String> participants) {
+        this(sLastId.incrementAndGet(), start, duration, room, subject, participants);
+    }
+
+    /**
+     * Restores a meeting with the id it was given when created, e.g. when read back from storage.
+     */
+    public Meeting(int id, long start, int duration, int room, String subject, List<String> participants) {
+        checkRange(room, participants.size());
+        mId = id;
+        reserveId(id);
+        mStart = start;
+        mDuration = duration;
         mRoom = room;
         mSubject = subject;
-        mParticipants = participants;
+        mParticipants = ParticipantDictionary.getInstance().intern(participants);
+    }
+
+    /**
+     * @param participantIds {@link ParticipantDictionary} ids, kept by the meeting
+     */
+    Meeting(int id, long start, int duration, int room, String subject, int[] participantIds) {
+        checkRange(room, participantIds.length);
+        mId = id;
+        reserveId(id);
+        mStart = start;
+        mDuration = duration;
+        mRoom = room;
+        mSubject = subject;
+        mParticipants = participantIds;
     }
 
     protected Meeting(Parcel in) {
-        mDate = in.readString();
-        mTime = in.readString();
-        mRoom = in.readString();
-        mSubject = in.readString();
-        mParticipants = in.createStringArrayList();
+        MeetingCodec.Input fields = new MeetingCodec.Input(in.createByteArray());
+        mId = (int) fields.readZigzag();
+        reserveId(mId);
+        mStart = fields.readZigzag();
+        mDuration = (int) fields.readVarint();
+        mRoom = (int) fields.readVarint();
+        mSubject = fields.readString();
+        mParticipants = new int[(int) fields.readVarint()];
+        for (int i = 0; i < mParticipants.length; i++)
+            mParticipants[i] = ParticipantDictionary.getInstance().intern(fields.readString());
     }
 
     public static final Creator<Meeting> CREATOR = new Creator<Meeting>() {
@@ -40,44 +97,85 @@ public class Meeting implements Parcelable {
         }
     };
 
-    public String getDate() {
-        return mDate;
+    private static void checkRange(int room, int participants) {
+        if (room < 0 || room > MAX_ROOM)
+            throw new IllegalArgumentException("Invalid room " + room);
+        if (participants > MAX_PARTICIPANTS)
+            throw new IllegalArgumentException("Too many participants: " + participants);
     }
 
-    public void setDate(String date) {
-        mDate = date;
+    /**
+     * Makes sure ids created from now on are above id, e.g. the highest id of a store whose meetings
+     * are not decoded yet.
+     */
+    public static void reserveId(int id) {
+        int last;
+        do {
+            last = sLastId.get();
+        } while (last < id && !sLastId.compareAndSet(last, id));
     }
 
-    public String getTime() {
-        return mTime;
+    /**
+     * @return the id of the meeting, unique in the store and kept through parceling and storage
+     */
+    public int getId() {
+        return mId;
     }
 
-    public void setTime(String time) {
-        mTime = time;
+    public long getStart() {
+        return mStart;
     }
 
-    public String getRoom() {
-        return mRoom;
+    public int getDuration() {
+        return mDuration;
     }
 
-    public void setRoom(String room) {
-        mRoom = room;
+    public long getEnd() {
+        return mStart + mDuration;
+    }
+
+    public int getDay() {
+        return MeetingTime.epochDay(mStart);
+    }
+
+    public String getDate() {
+        return MeetingTime.formatDate(getDay());
+    }
+
+    public String getTime() {
+        return MeetingTime.formatTime(mStart);
+    }
+
+    public int getRoom() {
+        return mRoom;
     }
 
     public String getSubject() {
         return mSubject;
     }
 
-    public void setSubject(String subject) {
-        mSubject = subject;
+    /**
+     * @return a read-only view of the participant emails
+     */
+    public List<String> getParticipants() {
+        return ParticipantDictionary.getInstance().asList(mParticipants);
     }
 
-    public List<String> getParticipants() {
+    /**
+     * @return the {@link ParticipantDictionary} ids of the participants, must not be modified
+     */
+    public int[] getParticipantIds() {
         return mParticipants;
     }
 
-    public void setParticipants(List<String> participants) {
-        mParticipants = participants;
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Meeting && mId == ((Meeting) o).mId;
+    }
+
+    @Override
+    public int hashCode() {
+        return mId;
     }
 
     @Override
@@ -85,12 +183,23 @@ public class Meeting implements Parcelable {
         return 0;
     }
 
+    /**
+     * Fields are written as varints in a single byte array, see {@link MeetingCodec}. Participants
+     * are written as emails, not dictionary ids, so that a meeting saved in a bundle can be read
+     * back by the process restarted after the system killed ours.
+     */
     @Override
     public void writeToParcel(Parcel dest, int flags) {
-        dest.writeString(mDate);
-        dest.writeString(mTime);
-        dest.writeString(mRoom);
-        dest.writeString(mSubject);
-        dest.writeStringList(mParticipants);
+        ParticipantDictionary dictionary = ParticipantDictionary.getInstance();
+        MeetingCodec.Output fields = new MeetingCodec.Output(16 + mSubject.length() + mParticipants.length * 24);
+        fields.writeZigzag(mId);
+        fields.writeZigzag(mStart);
+        fields.writeVarint(mDuration);
+        fields.writeVarint(mRoom);
+        fields.writeString(mSubject);
+        fields.writeVarint(mParticipants.length);
+        for (int participant : mParticipants)
+            fields.writeString(dictionary.get(participant));
+        dest.writeByteArray(fields.toByteArray());
     }
 }
@@ -0,0 +1,182 @@
+package com.openclassroom.mareu.model;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of meetings: integers as varints (7 bits per byte), ids and starts as the
+ * zigzag varint of their difference with the previous meeting, so that a list sorted by start costs
+ * a byte or two per start. A list stores each distinct subject and participant once, in a string
+ * table, and its meetings refer to them by index, which makes the encoding valid in any process.
+ * <pre>
+ * list     version:varint stringCount:varint (length:varint utf8)* count:varint meeting*
+ * meeting  idDelta:zigzag startDelta:zigzag duration:varint room:varint subject:varint
+ *          participantCount:varint participant:varint*
+ * </pre>
+ */
+public final class MeetingCodec {
+    private static final int VERSION = 1;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private MeetingCodec() {
+    }
+
+    public static byte[] encode(List<Meeting> meetings) {
+        // The string table comes first so that meetings only hold indexes into it
+        Map<String, Integer> indexes = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        ParticipantDictionary dictionary = ParticipantDictionary.getInstance();
+        for (Meeting meeting : meetings) {
+            index(meeting.getSubject(), indexes, strings);
+            for (int participant : meeting.getParticipantIds())
+                index(dictionary.get(participant), indexes, strings);
+        }
+        Output out = new Output(16 + strings.size() * 16 + meetings.size() * 12);
+        out.writeVarint(VERSION);
+        out.writeVarint(strings.size());
+        for (String string : strings)
+            out.writeString(string);
+        out.writeVarint(meetings.size());
+        int lastId = 0;
+        long lastStart = 0;
+        for (Meeting meeting : meetings) {
+            out.writeZigzag(meeting.getId() - (long) lastId);
+            out.writeZigzag(meeting.getStart() - lastStart);
+            out.writeVarint(meeting.getDuration());
+            out.writeVarint(meeting.getRoom());
+            out.writeVarint(indexes.get(meeting.getSubject()));
+            int[] participants = meeting.getParticipantIds();
+            out.writeVarint(participants.length);
+            for (int participant : participants)
+                out.writeVarint(indexes.get(dictionary.get(participant)));
+            lastId = meeting.getId();
+            lastStart = meeting.getStart();
+        }
+        return out.toByteArray();
+    }
+
+    private static void index(String string, Map<String, Integer> indexes, List<String> strings) {
+        if (!indexes.containsKey(string)) {
+            indexes.put(string, strings.size());
+            strings.add(string);
+        }
+    }
+
+    /**
+     * @return the meetings of data, with their ids, participants added to the {@link ParticipantDictionary}
+     */
+    public static List<Meeting> decode(byte[] data) {
+        Input in = new Input(data);
+        int version = (int) in.readVarint();
+        if (version != VERSION)
+            throw new IllegalArgumentException("Unknown meeting encoding version " + version);
+        String[] strings = new String[(int) in.readVarint()];
+        // Participants are interned once per list rather than once per meeting
+        int[] participantIds = new int[strings.length];
+        Arrays.fill(participantIds, -1);
+        for (int i = 0; i < strings.length; i++)
+            strings[i] = in.readString();
+        int count = (int) in.readVarint();
+        List<Meeting> meetings = new ArrayList<>(count);
+        int id = 0;
+        long start = 0;
+        for (int i = 0; i < count; i++) {
+            id += (int) in.readZigzag();
+            start += in.readZigzag();
+            int duration = (int) in.readVarint();
+            int room = (int) in.readVarint();
+            String subject = strings[(int) in.readVarint()];
+            int[] participants = new int[(int) in.readVarint()];
+            for (int p = 0; p < participants.length; p++) {
+                int string = (int) in.readVarint();
+                if (participantIds[string] < 0)
+                    participantIds[string] = ParticipantDictionary.getInstance().intern(strings[string]);
+                participants[p] = participantIds[string];
+            }
+            meetings.add(new Meeting(id, start, duration, room, subject, participants));
+        }
+        return meetings;
+    }
+
+    /**
+     * Growable buffer of varints and strings.
+     */
+    static class Output {
+        private byte[] mData;
+        private int mSize;
+
+        Output(int capacity) {
+            mData = new byte[Math.max(16, capacity)];
+        }
+
+        private void ensureCapacity(int extra) {
+            if (mSize + extra > mData.length)
+                mData = Arrays.copyOf(mData, Math.max(mSize + extra, mData.length * 2));
+        }
+
+        void writeVarint(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                mData[mSize++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            mData[mSize++] = (byte) value;
+        }
+
+        void writeZigzag(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(UTF_8);
+            writeVarint(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, mData, mSize, bytes.length);
+            mSize += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(mData, mSize);
+        }
+    }
+
+    static class Input {
+        private final byte[] mData;
+        private int mPosition;
+
+        Input(byte[] data) {
+            mData = data;
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (mPosition >= mData.length)
+                    throw new IllegalArgumentException("Truncated meeting encoding");
+                byte b = mData[mPosition++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0)
+                    return value;
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        long readZigzag() {
+            long value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String readString() {
+            int length = (int) readVarint();
+            if (length < 0 || length > mData.length - mPosition)
+                throw new IllegalArgumentException("Truncated meeting encoding");
+            String value = new String(mData, mPosition, length, UTF_8);
+            mPosition += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.openclassroom.mareu.model;
+
+import java.util.TimeZone;
+
+/**
+ * Packed meeting time helpers. A meeting start is stored as a count of minutes since
+ * 01/01/1970 00h00 (wall clock, no time zone), a day as a count of days since that date.
+ */
+public final class MeetingTime {
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private MeetingTime() {
+    }
+
+    /**
+     * @param month 1 for January
+     */
+    public static int toEpochDay(int year, int month, int day) {
+        // Days from civil, see http://howardhinnant.github.io/date_algorithms.html
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * @param month 1 for January
+     */
+    public static long of(int year, int month, int day, int hour, int minute) {
+        return (long) toEpochDay(year, month, day) * MINUTES_PER_DAY + hour * 60 + minute;
+    }
+
+    /**
+     * @return the current wall clock time of the default time zone, in minutes since epoch
+     */
+    public static long now() {
+        long millis = System.currentTimeMillis();
+        return (millis + TimeZone.getDefault().getOffset(millis)) / 60000;
+    }
+
+    public static int epochDay(long epochMinute) {
+        long day = epochMinute / MINUTES_PER_DAY;
+        return (int) (epochMinute < 0 && day * MINUTES_PER_DAY != epochMinute ? day - 1 : day);
+    }
+
+    public static int minuteOfDay(long epochMinute) {
+        return (int) (epochMinute - (long) epochDay(epochMinute) * MINUTES_PER_DAY);
+    }
+
+    /**
+     * @return the date packed as yyyyMMdd, e.g. 20210201
+     */
+    public static int toYearMonthDay(int epochDay) {
+        // Civil from days, see http://howardhinnant.github.io/date_algorithms.html
+        int z = epochDay + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10000 + month * 100 + day;
+    }
+
+    /**
+     * @return the day formatted as dd/MM/yyyy
+     */
+    public static String formatDate(int epochDay) {
+        int ymd = toYearMonthDay(epochDay);
+        int year = ymd / 10000;
+        char[] chars = new char[10];
+        putTwoDigits(chars, 0, ymd % 100);
+        chars[2] = '/';
+        putTwoDigits(chars, 3, ymd / 100 % 100);
+        chars[5] = '/';
+        putTwoDigits(chars, 6, year / 100);
+        putTwoDigits(chars, 8, year % 100);
+        return new String(chars);
+    }
+
+    /**
+     * @return the time of day formatted as HHhmm
+     */
+    public static String formatTime(long epochMinute) {
+        int minuteOfDay = minuteOfDay(epochMinute);
+        char[] chars = new char[5];
+        putTwoDigits(chars, 0, minuteOfDay / 60);
+        chars[2] = 'h';
+        putTwoDigits(chars, 3, minuteOfDay % 60);
+        return new String(chars);
+    }
+
+    private static void putTwoDigits(char[] chars, int offset, int value) {
+        chars[offset] = (char) ('0' + value / 10);
+        chars[offset + 1] = (char) ('0' + value % 10);
+    }
+}
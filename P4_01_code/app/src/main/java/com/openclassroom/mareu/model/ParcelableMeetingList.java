@@ -0,0 +1,51 @@
+package com.openclassroom.mareu.model;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parcelable list of meetings encoded with {@link MeetingCodec} into a single byte array, valid in
+ * any process. Meetings take 10 to 40 bytes each depending on how many subjects and participants
+ * they share, so thousands of them fit well under the 1 MB binder transaction limit.
+ */
+public class ParcelableMeetingList implements Parcelable {
+    private final List<Meeting> mMeetings;
+
+    public ParcelableMeetingList(List<Meeting> meetings) {
+        mMeetings = Collections.unmodifiableList(new ArrayList<>(meetings));
+    }
+
+    protected ParcelableMeetingList(Parcel in) {
+        mMeetings = Collections.unmodifiableList(MeetingCodec.decode(in.createByteArray()));
+    }
+
+    public static final Creator<ParcelableMeetingList> CREATOR = new Creator<ParcelableMeetingList>() {
+        @Override
+        public ParcelableMeetingList createFromParcel(Parcel in) {
+            return new ParcelableMeetingList(in);
+        }
+
+        @Override
+        public ParcelableMeetingList[] newArray(int size) {
+            return new ParcelableMeetingList[size];
+        }
+    };
+
+    public List<Meeting> getMeetings() {
+        return mMeetings;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeByteArray(MeetingCodec.encode(mMeetings));
+    }
+}
@@ -0,0 +1,91 @@
+package com.openclassroom.mareu.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Process wide table storing each participant email once. Meetings keep the int id of their
+ * participants, ids are given in order of first use and never change while the process lives.
+ */
+public final class ParticipantDictionary {
+    private static final ParticipantDictionary INSTANCE = new ParticipantDictionary();
+
+    private final Map<String, Integer> mIds = new HashMap<>();
+    private volatile String[] mEmails = new String[64];
+    private int mSize;
+
+    private ParticipantDictionary() {
+    }
+
+    public static ParticipantDictionary getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the id of email, added to the dictionary if it is not in it yet
+     */
+    public synchronized int intern(String email) {
+        Integer id = mIds.get(email);
+        if (id != null)
+            return id;
+        String[] emails = mEmails;
+        if (mSize == emails.length)
+            emails = Arrays.copyOf(emails, mSize * 2);
+        emails[mSize] = email;
+        mEmails = emails;
+        mIds.put(email, mSize);
+        return mSize++;
+    }
+
+    public int[] intern(List<String> emails) {
+        int[] ids = new int[emails.size()];
+        for (int i = 0; i < ids.length; i++)
+            ids[i] = intern(emails.get(i));
+        return ids;
+    }
+
+    /**
+     * @return the id of email, or -1 if no meeting was ever created with it
+     */
+    public synchronized int find(String email) {
+        Integer id = mIds.get(email);
+        return id == null ? -1 : id;
+    }
+
+    public String get(int id) {
+        return mEmails[id];
+    }
+
+    public synchronized int size() {
+        return mSize;
+    }
+
+    /**
+     * @return a read-only list of the emails of ids
+     */
+    public List<String> asList(int[] ids) {
+        return new EmailList(ids);
+    }
+
+    private class EmailList extends AbstractList<String> implements RandomAccess {
+        private final int[] mParticipantIds;
+
+        EmailList(int[] ids) {
+            mParticipantIds = ids;
+        }
+
+        @Override
+        public String get(int index) {
+            return ParticipantDictionary.this.get(mParticipantIds[index]);
+        }
+
+        @Override
+        public int size() {
+            return mParticipantIds.length;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.openclassroom.mareu.recyclerview;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.openclassroom.mareu.service.MeetingChangeSet;
+
+/**
+ * Notifies the changes of a batch, shared by the view and the paging adapters.
+ */
+final class MeetingChangeNotifier {
+    private static final int MAX_RANGES = 32;
+
+    private MeetingChangeNotifier() {
+    }
+
+    /**
+     * Notifies adapter, already holding the rows after changes, of ranges of consecutive rows, or
+     * of a whole new list when they are too scattered to animate.
+     */
+    static void notifyChanges(RecyclerView.Adapter<?> adapter, MeetingChangeSet changes) {
+        int[] removed = changes.getRemovedPositions();
+        int[] inserted = changes.getInsertedPositions();
+        if (countRanges(removed) + countRanges(inserted) > MAX_RANGES) {
+            adapter.notifyDataSetChanged();
+            return;
+        }
+        // Removed ranges from the last one, so that the positions of the others still hold
+        for (int end = removed.length; end > 0; ) {
+            int start = end - 1;
+            while (start > 0 && removed[start - 1] == removed[start] - 1)
+                start--;
+            adapter.notifyItemRangeRemoved(removed[start], end - start);
+            end = start;
+        }
+        for (int start = 0; start < inserted.length; ) {
+            int end = start + 1;
+            while (end < inserted.length && inserted[end] == inserted[end - 1] + 1)
+                end++;
+            adapter.notifyItemRangeInserted(inserted[start], end - start);
+            start = end;
+        }
+    }
+
+    private static int countRanges(int[] positions) {
+        int ranges = 0;
+        for (int i = 0; i < positions.length; i++) {
+            if (i == 0 || positions[i] != positions[i - 1] + 1)
+                ranges++;
+        }
+        return ranges;
+    }
+}
@@ -1,87 +1,81 @@
 package com.openclassroom.mareu.recyclerview;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import android.content.Context;
-import android.graphics.Color;
 import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
-import com.openclassroom.mareu.R;
 import com.openclassroom.mareu.callback.IDeleteMeeting;
 import com.openclassroom.mareu.databinding.FragmentMeetingItemBinding;
 import com.openclassroom.mareu.model.Meeting;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
 
-public class MeetingListRecyclerViewAdapter extends RecyclerView.Adapter<MeetingListRecyclerViewAdapter.ViewHolder> {
-    private static final Random r = new Random();
-    private List<Meeting> mValues;
+public class MeetingListRecyclerViewAdapter extends ListAdapter<Meeting, MeetingListRecyclerViewAdapter.ViewHolder> {
     public FragmentMeetingItemBinding binding;
-    private final Context mContext;
+    private final MeetingRowBinder mRowBinder;
     private final IDeleteMeeting mDeleteMeeting;
 
+    private static final DiffUtil.ItemCallback<Meeting> DIFF_CALLBACK = new DiffUtil.ItemCallback<Meeting>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Meeting oldItem, @NonNull Meeting newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Meeting oldItem, @NonNull Meeting newItem) {
+            return oldItem.getStart() == newItem.getStart()
+                    && oldItem.getDuration() == newItem.getDuration()
+                    && oldItem.getRoom() == newItem.getRoom()
+                    && oldItem.getSubject().equals(newItem.getSubject())
+                    && Arrays.equals(oldItem.getParticipantIds(), newItem.getParticipantIds());
+        }
+    };
+
     public MeetingListRecyclerViewAdapter(Context context, List<Meeting> items, IDeleteMeeting deleteMeeting) {
-        mValues = items;
-        mContext = context;
+        super(DIFF_CALLBACK);
+        mRowBinder = new MeetingRowBinder(context);
         mDeleteMeeting = deleteMeeting;
+        submitList(items);
     }
 
+    /**
+     * Shows list, the rows to insert, move or remove are computed on a background thread by meeting id.
+     * The list must not be modified afterwards, submit a modified copy instead.
+     */
     public void setList(List<Meeting> list) {
-        if (list != mValues) {
-            mValues = list;
-            notifyDataSetChanged();
-        }
+        submitList(list);
     }
 
     public List<Meeting> getList() {
-        return mValues;
+        return getCurrentList();
     }
 
     @NonNull
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        return new ViewHolder(
+        ViewHolder holder = new ViewHolder(
                 FragmentMeetingItemBinding.inflate(LayoutInflater.from(parent.getContext()), parent, false)
         );
-    }
-
-    public static int getRandomColor() {
-        return Color.HSVToColor(new float[]{r.nextFloat() * 360, 0.25f, 0.75f}); // use HSV to get pastel color (sat 25%, value 75%, so only varying HUE
-    }
-
-    @Override
-    public void onBindViewHolder(final ViewHolder holder, int position) {
-        Meeting meeting = mValues.get(position);
-        String subject = mContext.getString(R.string.item_meeting_subject_format, meeting.getSubject(), meeting.getTime(), meeting.getRoom());
-        holder.mBinding.subjectMeeting.setText(subject);
-        holder.mBinding.participantsMeeting.setText(formatParticipantList(meeting.getParticipants()));
-        holder.mBinding.colorMeeting.setColorFilter(getRandomColor());
         holder.mBinding.removeMeeting.setOnClickListener(v -> {
-            mDeleteMeeting.deleteMeetingCallback(meeting);
+            int position = holder.getAdapterPosition();
+            if (position != RecyclerView.NO_POSITION)
+                mDeleteMeeting.deleteMeetingCallback(getItem(position));
         });
+        return holder;
     }
 
     @Override
-    public int getItemCount() {
-        return mValues.size();
-    }
-
-    private String formatParticipantList(List<String> participants) {
-        StringBuilder participantListStringBuilder = new StringBuilder();
-        int size = participants.size();
-        for (String participant : participants) {
-            participantListStringBuilder.append(participant);
-            size--;
-            if (size > 0)
-                participantListStringBuilder.append(", ");
-        }
-        return participantListStringBuilder.toString();
+    public void onBindViewHolder(final ViewHolder holder, int position) {
+        mRowBinder.bind(holder, getItem(position));
     }
 
-    public class ViewHolder extends RecyclerView.ViewHolder {
+    public static class ViewHolder extends RecyclerView.ViewHolder {
         public FragmentMeetingItemBinding mBinding;
 
         public ViewHolder(FragmentMeetingItemBinding binding) {
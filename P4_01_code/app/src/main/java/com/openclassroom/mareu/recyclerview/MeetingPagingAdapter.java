@@ -0,0 +1,303 @@
+package com.openclassroom.mareu.recyclerview;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+
+import com.openclassroom.mareu.callback.IDeleteMeeting;
+import com.openclassroom.mareu.callback.IMeetingViewListener;
+import com.openclassroom.mareu.callback.IResultCallback;
+import com.openclassroom.mareu.databinding.FragmentMeetingItemBinding;
+import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.service.MeetingApiServiceAsync;
+import com.openclassroom.mareu.service.MeetingChangeSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shows every meeting sorted by time, loading pages of {@link #PAGE_SIZE} meetings around the
+ * rows being bound. Rows not loaded yet are placeholders, and only about {@link #MAX_PAGES} pages
+ * closest to the last bound row are kept.
+ * <p>
+ * The loaded meetings are runs of consecutive rows. A page next to a run is fetched by key (after
+ * its last or before its first meeting), a page reached by a jump is fetched by position. Each
+ * meeting created or removed is inserted or removed in its run and shifts the runs after it, so
+ * the rows shown stay loaded; a load requested before a change is dropped and requested again.
+ */
+public class MeetingPagingAdapter extends RecyclerView.Adapter<MeetingListRecyclerViewAdapter.ViewHolder>
+        implements IMeetingViewListener {
+    static final int PAGE_SIZE = 50;
+    static final int MAX_PAGES = 8;
+    private static final int MAX_LOADED = PAGE_SIZE * MAX_PAGES;
+
+    private final MeetingApiServiceAsync mService;
+    private final MeetingRowBinder mRowBinder;
+    private final IDeleteMeeting mDeleteMeeting;
+    // Sorted by position, never adjacent
+    private final List<Run> mRuns = new ArrayList<>();
+    private MeetingApiServiceAsync.Subscription mSubscription;
+    private int mCount;
+    private int mChangeCount;
+    private boolean mLoading;
+    private int mWantedPosition = -1;
+    private int mLastPosition;
+
+    /**
+     * Loaded meetings of the rows [mOffset, mOffset + mMeetings.size()).
+     */
+    private static class Run {
+        int mOffset;
+        final List<Meeting> mMeetings;
+
+        Run(int offset, List<Meeting> meetings) {
+            mOffset = offset;
+            mMeetings = new ArrayList<>(meetings);
+        }
+
+        int end() {
+            return mOffset + mMeetings.size();
+        }
+    }
+
+    public MeetingPagingAdapter(Context context, MeetingApiServiceAsync service, IDeleteMeeting deleteMeeting) {
+        mService = service;
+        mRowBinder = new MeetingRowBinder(context);
+        mDeleteMeeting = deleteMeeting;
+    }
+
+    /**
+     * Starts following the meetings of the service, the list is empty until their count arrives.
+     */
+    public void open() {
+        close();
+        mSubscription = mService.observeAll(count -> {
+            mRuns.clear();
+            mCount = count;
+            mChangeCount++;
+            notifyDataSetChanged();
+        }, this);
+    }
+
+    public void close() {
+        if (mSubscription != null) {
+            mSubscription.close();
+            mSubscription = null;
+        }
+    }
+
+    /**
+     * @return the meeting at position, null if it is not loaded
+     */
+    public Meeting getMeeting(int position) {
+        for (Run run : mRuns) {
+            if (position >= run.mOffset && position < run.end())
+                return run.mMeetings.get(position - run.mOffset);
+        }
+        return null;
+    }
+
+    @Override
+    public int getItemCount() {
+        return mCount;
+    }
+
+    @NonNull
+    @Override
+    public MeetingListRecyclerViewAdapter.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        MeetingListRecyclerViewAdapter.ViewHolder holder = new MeetingListRecyclerViewAdapter.ViewHolder(
+                FragmentMeetingItemBinding.inflate(LayoutInflater.from(parent.getContext()), parent, false)
+        );
+        holder.mBinding.removeMeeting.setOnClickListener(v -> {
+            int position = holder.getAdapterPosition();
+            Meeting meeting = position != RecyclerView.NO_POSITION ? getMeeting(position) : null;
+            if (meeting != null)
+                mDeleteMeeting.deleteMeetingCallback(meeting);
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull MeetingListRecyclerViewAdapter.ViewHolder holder, int position) {
+        mLastPosition = position;
+        Meeting meeting = getMeeting(position);
+        if (meeting != null)
+            mRowBinder.bind(holder, meeting);
+        else {
+            mRowBinder.bindPlaceholder(holder);
+            load(position);
+        }
+        // Prefetch the rows the user is likely to scroll to, once the rows shown are loaded
+        if (!mLoading)
+            load(position + PAGE_SIZE / 4);
+        if (!mLoading)
+            load(position - PAGE_SIZE / 4);
+    }
+
+    /**
+     * Loads the page of the gap between runs holding position, or notes it for when the load
+     * running now ends.
+     */
+    private void load(int position) {
+        if (position < 0 || position >= mCount || getMeeting(position) != null)
+            return;
+        if (mLoading) {
+            mWantedPosition = position;
+            return;
+        }
+        Run before = null;
+        Run after = null;
+        for (Run run : mRuns) {
+            if (run.end() <= position)
+                before = run;
+            else {
+                after = run;
+                break;
+            }
+        }
+        int gapStart = before != null ? before.end() : 0;
+        int gapEnd = after != null ? after.mOffset : mCount;
+
+        mLoading = true;
+        if (before != null && position - gapStart < PAGE_SIZE) {
+            int count = Math.min(PAGE_SIZE, gapEnd - gapStart);
+            Meeting last = before.mMeetings.get(before.mMeetings.size() - 1);
+            mService.getMeetingsAfter(last.getStart(), last.getId(), count, onLoaded(gapStart));
+        } else if (after != null && gapEnd - position <= PAGE_SIZE) {
+            int count = Math.min(PAGE_SIZE, gapEnd - gapStart);
+            Meeting first = after.mMeetings.get(0);
+            mService.getMeetingsBefore(first.getStart(), first.getId(), count, onLoaded(gapEnd - count));
+        } else {
+            int from = Math.max(gapStart, Math.min(position - PAGE_SIZE / 2, gapEnd - PAGE_SIZE));
+            mService.getMeetingsByStart(from, Math.min(PAGE_SIZE, gapEnd - from), onLoaded(from));
+        }
+    }
+
+    /**
+     * @param offset position of the first meeting loaded
+     */
+    private IResultCallback<List<Meeting>> onLoaded(int offset) {
+        int changeCount = mChangeCount;
+        return meetings -> {
+            mLoading = false;
+            // Positions and keys read before a change may point to other rows now
+            if (changeCount == mChangeCount && !meetings.isEmpty()) {
+                addRun(new Run(offset, meetings));
+                trimRuns();
+                notifyItemRangeChanged(offset, meetings.size());
+            }
+            int wanted = mWantedPosition;
+            mWantedPosition = -1;
+            load(wanted >= 0 ? wanted : mLastPosition);
+        };
+    }
+
+    private void addRun(Run added) {
+        int index = 0;
+        while (index < mRuns.size() && mRuns.get(index).mOffset < added.mOffset)
+            index++;
+        mRuns.add(index, added);
+        mergeRuns();
+    }
+
+    private void mergeRuns() {
+        for (int i = mRuns.size() - 1; i > 0; i--) {
+            Run previous = mRuns.get(i - 1);
+            if (previous.end() >= mRuns.get(i).mOffset) {
+                previous.mMeetings.addAll(mRuns.remove(i).mMeetings);
+            }
+        }
+    }
+
+    /**
+     * Drops the runs farthest from the last bound row, then the ends of its own run, their rows
+     * become placeholders again.
+     */
+    private void trimRuns() {
+        int loaded = 0;
+        for (Run run : mRuns)
+            loaded += run.mMeetings.size();
+        while (loaded > MAX_LOADED && mRuns.size() > 1) {
+            int farthest = 0;
+            for (int i = 1; i < mRuns.size(); i++) {
+                if (distance(mRuns.get(i)) > distance(mRuns.get(farthest)))
+                    farthest = i;
+            }
+            loaded -= mRuns.remove(farthest).mMeetings.size();
+        }
+        if (loaded > MAX_LOADED) {
+            Run run = mRuns.get(0);
+            int from = Math.max(run.mOffset, Math.min(mLastPosition - MAX_LOADED / 2, run.end() - MAX_LOADED));
+            List<Meeting> kept = new ArrayList<>(run.mMeetings.subList(from - run.mOffset, from - run.mOffset + MAX_LOADED));
+            run.mMeetings.clear();
+            run.mMeetings.addAll(kept);
+            run.mOffset = from;
+        }
+    }
+
+    private int distance(Run run) {
+        if (mLastPosition < run.mOffset)
+            return run.mOffset - mLastPosition;
+        return Math.max(0, mLastPosition - run.end() + 1);
+    }
+
+    /**
+     * Inserts meeting in the run holding the row before or after position, shifts the runs after it.
+     */
+    private void insert(int position, Meeting meeting) {
+        mCount++;
+        for (Run run : mRuns) {
+            if (run.mOffset > position)
+                run.mOffset++;
+            else if (position <= run.end())
+                run.mMeetings.add(position - run.mOffset, meeting);
+        }
+    }
+
+    private void remove(int position) {
+        mCount--;
+        for (int i = mRuns.size() - 1; i >= 0; i--) {
+            Run run = mRuns.get(i);
+            if (run.mOffset > position)
+                run.mOffset--;
+            else if (position < run.end()) {
+                run.mMeetings.remove(position - run.mOffset);
+                if (run.mMeetings.isEmpty())
+                    mRuns.remove(i);
+            }
+        }
+        mergeRuns();
+    }
+
+    @Override
+    public void onMeetingInserted(int position, Meeting meeting) {
+        mChangeCount++;
+        insert(position, meeting);
+        notifyItemInserted(position);
+    }
+
+    @Override
+    public void onMeetingRemoved(int position, Meeting meeting) {
+        mChangeCount++;
+        remove(position);
+        notifyItemRemoved(position);
+    }
+
+    @Override
+    public void onMeetingsChanged(MeetingChangeSet changes) {
+        mChangeCount++;
+        int[] removed = changes.getRemovedPositions();
+        int[] inserted = changes.getInsertedPositions();
+        // Removed from the last one, so that the positions of the others still hold
+        for (int i = removed.length - 1; i >= 0; i--)
+            remove(removed[i]);
+        List<Meeting> insertedMeetings = changes.getInserted();
+        for (int i = 0; i < inserted.length; i++)
+            insert(inserted[i], insertedMeetings.get(i));
+        trimRuns();
+        MeetingChangeNotifier.notifyChanges(this, changes);
+    }
+}
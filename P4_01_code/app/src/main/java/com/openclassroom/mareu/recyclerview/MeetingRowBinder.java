@@ -0,0 +1,98 @@
+package com.openclassroom.mareu.recyclerview;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.util.LruCache;
+
+import com.openclassroom.mareu.R;
+import com.openclassroom.mareu.model.Meeting;
+
+import java.util.List;
+
+/**
+ * Fills meeting rows, shared by the list and the paging adapters.
+ */
+class MeetingRowBinder {
+    private static final int[] ROOM_COLORS = createRoomColors(16);
+
+    private final Context mContext;
+    // Formatted texts of the last rows shown, so flinging back and forth binds without formatting
+    private final LruCache<Meeting, RowText> mRowTexts = new LruCache<>(256);
+
+    MeetingRowBinder(Context context) {
+        mContext = context;
+    }
+
+    /**
+     * Hues are spread by the golden angle, so consecutive rooms get clearly different colors.
+     */
+    private static int[] createRoomColors(int count) {
+        int[] colors = new int[count];
+        float[] hsv = {0, 0.25f, 0.75f}; // use HSV to get pastel color (sat 25%, value 75%, so only varying HUE
+        for (int i = 0; i < count; i++) {
+            hsv[0] = (i * 137.508f) % 360;
+            colors[i] = Color.HSVToColor(hsv);
+        }
+        return colors;
+    }
+
+    /**
+     * @return the color of room, the same for every meeting in it
+     */
+    static int getRoomColor(int room) {
+        return ROOM_COLORS[((room - 1) % ROOM_COLORS.length + ROOM_COLORS.length) % ROOM_COLORS.length];
+    }
+
+    void bind(MeetingListRecyclerViewAdapter.ViewHolder holder, Meeting meeting) {
+        RowText rowText = getRowText(meeting);
+        holder.mBinding.subjectMeeting.setText(rowText.mSubject);
+        holder.mBinding.participantsMeeting.setText(rowText.mParticipants);
+        holder.mBinding.colorMeeting.setColorFilter(getRoomColor(meeting.getRoom()));
+        holder.mBinding.removeMeeting.setEnabled(true);
+    }
+
+    /**
+     * Shows an empty row while its meeting is loading.
+     */
+    void bindPlaceholder(MeetingListRecyclerViewAdapter.ViewHolder holder) {
+        holder.mBinding.subjectMeeting.setText(null);
+        holder.mBinding.participantsMeeting.setText(null);
+        holder.mBinding.colorMeeting.setColorFilter(Color.LTGRAY);
+        holder.mBinding.removeMeeting.setEnabled(false);
+    }
+
+    private RowText getRowText(Meeting meeting) {
+        // Keyed by id, but a copy of the meeting may hold other values: only trust texts of this instance
+        RowText rowText = mRowTexts.get(meeting);
+        if (rowText == null || rowText.mMeeting != meeting) {
+            String subject = mContext.getString(R.string.item_meeting_subject_format, meeting.getSubject(), meeting.getTime(), meeting.getRoom());
+            rowText = new RowText(meeting, subject, formatParticipantList(meeting.getParticipants()));
+            mRowTexts.put(meeting, rowText);
+        }
+        return rowText;
+    }
+
+    private String formatParticipantList(List<String> participants) {
+        StringBuilder participantListStringBuilder = new StringBuilder();
+        int size = participants.size();
+        for (String participant : participants) {
+            participantListStringBuilder.append(participant);
+            size--;
+            if (size > 0)
+                participantListStringBuilder.append(", ");
+        }
+        return participantListStringBuilder.toString();
+    }
+
+    private static class RowText {
+        private final Meeting mMeeting;
+        private final String mSubject;
+        private final String mParticipants;
+
+        RowText(Meeting meeting, String subject, String participants) {
+            mMeeting = meeting;
+            mSubject = subject;
+            mParticipants = participants;
+        }
+    }
+}
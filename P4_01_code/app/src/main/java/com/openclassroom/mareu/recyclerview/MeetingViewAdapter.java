@@ -0,0 +1,84 @@
+package com.openclassroom.mareu.recyclerview;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+
+import com.openclassroom.mareu.callback.IDeleteMeeting;
+import com.openclassroom.mareu.callback.IMeetingViewListener;
+import com.openclassroom.mareu.databinding.FragmentMeetingItemBinding;
+import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.service.MeetingChangeSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shows a {@link com.openclassroom.mareu.service.MeetingView}: its meetings, then each insertion and
+ * removal it reports, as a single row change. The changes of a batch are notified as ranges of
+ * consecutive rows, or as a whole new list when they are too scattered to animate.
+ */
+public class MeetingViewAdapter extends RecyclerView.Adapter<MeetingListRecyclerViewAdapter.ViewHolder>
+        implements IMeetingViewListener {
+    private final MeetingRowBinder mRowBinder;
+    private final IDeleteMeeting mDeleteMeeting;
+    private final List<Meeting> mMeetings = new ArrayList<>();
+
+    public MeetingViewAdapter(Context context, IDeleteMeeting deleteMeeting) {
+        mRowBinder = new MeetingRowBinder(context);
+        mDeleteMeeting = deleteMeeting;
+    }
+
+    public void setMeetings(List<Meeting> meetings) {
+        mMeetings.clear();
+        mMeetings.addAll(meetings);
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public void onMeetingInserted(int position, Meeting meeting) {
+        mMeetings.add(position, meeting);
+        notifyItemInserted(position);
+    }
+
+    @Override
+    public void onMeetingRemoved(int position, Meeting meeting) {
+        mMeetings.remove(position);
+        notifyItemRemoved(position);
+    }
+
+    @Override
+    public void onMeetingsChanged(MeetingChangeSet changes) {
+        List<Meeting> meetings = changes.applyTo(mMeetings);
+        mMeetings.clear();
+        mMeetings.addAll(meetings);
+        MeetingChangeNotifier.notifyChanges(this, changes);
+    }
+
+    @Override
+    public int getItemCount() {
+        return mMeetings.size();
+    }
+
+    @NonNull
+    @Override
+    public MeetingListRecyclerViewAdapter.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        MeetingListRecyclerViewAdapter.ViewHolder holder = new MeetingListRecyclerViewAdapter.ViewHolder(
+                FragmentMeetingItemBinding.inflate(LayoutInflater.from(parent.getContext()), parent, false)
+        );
+        holder.mBinding.removeMeeting.setOnClickListener(v -> {
+            int position = holder.getAdapterPosition();
+            if (position != RecyclerView.NO_POSITION)
+                mDeleteMeeting.deleteMeetingCallback(mMeetings.get(position));
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull MeetingListRecyclerViewAdapter.ViewHolder holder, int position) {
+        mRowBinder.bind(holder, mMeetings.get(position));
+    }
+}
@@ -1,5 +1,6 @@
 package com.openclassroom.mareu.service;
 
+import com.openclassroom.mareu.callback.IMeetingViewListener;
 import com.openclassroom.mareu.model.Meeting;
 
 import java.util.List;
@@ -7,12 +8,71 @@ import java.util.List;
 public interface MeetingApiService {
     List<Meeting> getMeetings();
 
+    /**
+     * @return the meeting with this id, null if there is none
+     */
+    Meeting getMeeting(int id);
+
     void createMeeting(Meeting meeting);
 
+    /**
+     * Creates a batch of meetings, in one pass over the store rather than one call per meeting
+     */
+    void createMeetings(List<Meeting> meetings);
+
     void removeMeeting(Meeting meeting);
 
+    /**
+     * Removes then creates the meetings of batch, updating each index once for the whole batch, and
+     * reports the changes to each open view as a single {@link MeetingChangeSet}
+     */
+    void applyBatch(MeetingBatch batch);
+
     int indexOfMeeting(Meeting meeting);
 
-    List<Meeting> getFilteredList(String room, String date);
+    /**
+     * Serves every query on a subset of the meetings: rooms, days, start range, time of day and
+     * participant are all criteria of filter. Use the keyset paging methods to walk all meetings.
+     *
+     * @return meetings meeting every criterion of filter, sorted by start then id
+     */
+    List<Meeting> getFilteredList(MeetingFilter filter);
+
+    /**
+     * @return a view of the meetings matching filter, telling listener where each meeting created
+     * or removed afterwards goes, until it is closed
+     */
+    MeetingView observe(MeetingFilter filter, IMeetingViewListener listener);
+
+    /**
+     * @return meetings booking the same room as meeting at an overlapping time, meeting itself excluded
+     */
+    List<Meeting> getConflicts(Meeting meeting);
+
+    /**
+     * @return at most limit meetings sorted by start then id, whose subject or participant emails
+     * have a word starting with each word of query
+     */
+    List<Meeting> searchMeetings(String query, int limit);
+
+    /**
+     * Keyset paging of all meetings sorted by start then id.
+     *
+     * @return the first count meetings sorted after the meeting starting at start with this id,
+     * use {@link Long#MIN_VALUE} to get the first page, {@link Integer#MIN_VALUE} as id to start
+     * with the meetings starting at start
+     */
+    List<Meeting> getMeetingsAfter(long start, int id, int count);
+
+    /**
+     * @return the last count meetings sorted before the meeting starting at start with this id, sorted by start then id
+     */
+    List<Meeting> getMeetingsBefore(long start, int id, int count);
+
+    /**
+     * @return the meetings at positions [position, position + count) of all meetings sorted by start then id,
+     * to reach a page far from the pages loaded so far
+     */
+    List<Meeting> getMeetingsByStart(int position, int count);
 }
 
@@ -0,0 +1,105 @@
+package com.openclassroom.mareu.service;
+
+import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.model.MeetingTime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps only current and future meetings in another service: meetings ended more than a number of
+ * days ago are moved to a {@link MeetingArchive}, so that the indexes and scans of the service do
+ * not grow with the history. Every query reads the service alone, the archive is queried on demand
+ * through {@link #getArchive()}.
+ * <p>
+ * Meetings are archived by the first change made each day, never while the wrapper is created, so
+ * that opening the store does not move meetings. They are written to the archive before they are
+ * removed from the service, so that a crash in between leaves them in both, and the next archiving
+ * removes them from the service.
+ */
+public class MeetingApiServiceArchiving extends MeetingApiServiceWrapper {
+    private final MeetingArchive mArchive;
+    private final int mRetentionDays;
+    private final Clock mClock;
+    private long mArchivedBefore = Long.MIN_VALUE;
+
+    /**
+     * Gives the current time, in minutes since epoch.
+     */
+    public interface Clock {
+        Clock SYSTEM = MeetingTime::now;
+
+        long now();
+    }
+
+    /**
+     * @param retentionDays number of past days kept in service, meetings ended before are archived
+     */
+    public MeetingApiServiceArchiving(MeetingApiService service, MeetingArchive archive, int retentionDays) {
+        this(service, archive, retentionDays, Clock.SYSTEM);
+    }
+
+    public MeetingApiServiceArchiving(MeetingApiService service, MeetingArchive archive, int retentionDays, Clock clock) {
+        super(service);
+        mArchive = archive;
+        mRetentionDays = retentionDays;
+        mClock = clock;
+    }
+
+    public MeetingArchive getArchive() {
+        return mArchive;
+    }
+
+    /**
+     * Archives the meetings ended before the start of the day retentionDays before today, unless it
+     * was done already today.
+     *
+     * @return the number of meetings archived
+     */
+    public int archiveIfDue() {
+        long before = ((long) MeetingTime.epochDay(mClock.now()) - mRetentionDays) * MeetingTime.MINUTES_PER_DAY;
+        if (before <= mArchivedBefore)
+            return 0;
+        mArchivedBefore = before;
+        List<Meeting> past = new ArrayList<>();
+        for (Meeting meeting : mService.getFilteredList(MeetingFilter.any().starts(Long.MIN_VALUE, before))) {
+            if (meeting.getEnd() <= before)
+                past.add(meeting);
+        }
+        if (past.isEmpty())
+            return 0;
+        mArchive.addAll(past);
+        mService.applyBatch(new MeetingBatch().removeAll(past));
+        return past.size();
+    }
+
+    @Override
+    public void createMeeting(Meeting meeting) {
+        archiveIfDue();
+        mService.createMeeting(meeting);
+    }
+
+    @Override
+    public void createMeetings(List<Meeting> meetings) {
+        archiveIfDue();
+        mService.createMeetings(meetings);
+    }
+
+    /**
+     * Removes meeting from the service, or from the archive if it was archived.
+     */
+    @Override
+    public void removeMeeting(Meeting meeting) {
+        archiveIfDue();
+        if (mService.getMeeting(meeting.getId()) != null)
+            mService.removeMeeting(meeting);
+        else
+            mArchive.remove(meeting);
+    }
+
+    @Override
+    public void applyBatch(MeetingBatch batch) {
+        archiveIfDue();
+        mService.applyBatch(batch);
+    }
+}
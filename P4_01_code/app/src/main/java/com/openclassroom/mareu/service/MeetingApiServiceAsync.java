@@ -0,0 +1,294 @@
+package com.openclassroom.mareu.service;
+
+import com.openclassroom.mareu.callback.IMeetingViewListener;
+import com.openclassroom.mareu.callback.IResultCallback;
+import com.openclassroom.mareu.model.Meeting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the calls to a {@link MeetingApiService} on a single background thread, in submission order,
+ * and delivers their results through the result executor (the main thread in the application).
+ * <p>
+ * The service may be opened by the first call on that thread, so that the facade is usable at once
+ * while the store is read. The wrapped service must only be used through this class once it is
+ * wrapped, or directly from a call run by {@link #submit}. Lists handed to the callbacks are copies,
+ * owned by the caller. A call which throws is reported to the error callback instead.
+ */
+public class MeetingApiServiceAsync {
+    private final FutureTask<MeetingApiService> mOpening;
+    private final Executor mResultExecutor;
+    private final ThreadPoolExecutor mWorker;
+    private final AtomicInteger mPendingCalls = new AtomicInteger();
+    private volatile Runnable mIdleListener;
+    private volatile IResultCallback<Exception> mErrorCallback;
+
+    public MeetingApiServiceAsync(MeetingApiService service, Executor resultExecutor) {
+        this(() -> service, resultExecutor);
+    }
+
+    /**
+     * @param opener opens the service as the first call on the service thread, the calls made
+     *               meanwhile wait in order; if it fails, each call fails with an {@link IllegalStateException}
+     */
+    public MeetingApiServiceAsync(Callable<MeetingApiService> opener, Executor resultExecutor) {
+        mResultExecutor = resultExecutor;
+        // Unbounded: a call is never run on the caller thread, which is the main thread, nor
+        // rejected, which would leave its caller waiting for a result that never comes
+        mWorker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "meeting-service");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        mOpening = new FutureTask<>(opener);
+        submit(() -> {
+            mOpening.run();
+            return getService();
+        }, null);
+    }
+
+    /**
+     * @return the service, waiting for it to be opened: not to be called from the main thread
+     * @throws IllegalStateException if opening it failed
+     */
+    public MeetingApiService getService() {
+        try {
+            return mOpening.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while opening the meeting service", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Cannot open the meeting service", e.getCause());
+        }
+    }
+
+    public void getMeetings(IResultCallback<List<Meeting>> callback) {
+        submit(() -> new ArrayList<>(getService().getMeetings()), callback);
+    }
+
+    /**
+     * @param callback receives the index of the new meeting in {@link MeetingApiService#getMeetings()}
+     */
+    public void createMeeting(Meeting meeting, IResultCallback<Integer> callback) {
+        submit(() -> {
+            MeetingApiService service = getService();
+            service.createMeeting(meeting);
+            return service.indexOfMeeting(meeting);
+        }, callback);
+    }
+
+    /**
+     * @param callback receives the number of meetings created
+     */
+    public void createMeetings(List<Meeting> meetings, IResultCallback<Integer> callback) {
+        submit(() -> {
+            getService().createMeetings(meetings);
+            return meetings.size();
+        }, callback);
+    }
+
+    public void removeMeeting(Meeting meeting, IResultCallback<Void> callback) {
+        submit(() -> {
+            getService().removeMeeting(meeting);
+            return null;
+        }, callback);
+    }
+
+    public void applyBatch(MeetingBatch batch, IResultCallback<Void> callback) {
+        submit(() -> {
+            getService().applyBatch(batch);
+            return null;
+        }, callback);
+    }
+
+    public void getFilteredList(MeetingFilter filter, IResultCallback<List<Meeting>> callback) {
+        submit(() -> getService().getFilteredList(filter), callback);
+    }
+
+    /**
+     * Opens a view of the meetings matching filter. meetings receives its content, then listener the
+     * position of each meeting created or removed, all on the result executor and in order, so the
+     * positions apply to the list received first.
+     *
+     * @return the subscription to close once the view is not shown anymore
+     */
+    public Subscription observe(MeetingFilter filter, IResultCallback<List<Meeting>> meetings, IMeetingViewListener listener) {
+        Subscription subscription = new Subscription();
+        IMeetingViewListener resultListener = onResultExecutor(subscription, listener);
+        submit(() -> {
+            subscription.mView = getService().observe(filter, resultListener);
+            return subscription.mView.getMeetings();
+        }, result -> {
+            if (!subscription.mClosed)
+                meetings.onResult(result);
+        });
+        return subscription;
+    }
+
+    /**
+     * Follows all meetings sorted by start then id without copying them: count receives their
+     * number, then listener the position of each meeting created or removed, to page through them.
+     *
+     * @return the subscription to close once the meetings are not shown anymore
+     */
+    public Subscription observeAll(IResultCallback<Integer> count, IMeetingViewListener listener) {
+        Subscription subscription = new Subscription();
+        IMeetingViewListener resultListener = onResultExecutor(subscription, listener);
+        submit(() -> {
+            subscription.mView = getService().observe(MeetingFilter.any(), resultListener);
+            return subscription.mView.size();
+        }, result -> {
+            if (!subscription.mClosed)
+                count.onResult(result);
+        });
+        return subscription;
+    }
+
+    /**
+     * @return a listener calling listener on the result executor until subscription is closed
+     */
+    private IMeetingViewListener onResultExecutor(Subscription subscription, IMeetingViewListener listener) {
+        return new IMeetingViewListener() {
+            @Override
+            public void onMeetingInserted(int position, Meeting meeting) {
+                mResultExecutor.execute(() -> {
+                    if (!subscription.mClosed)
+                        listener.onMeetingInserted(position, meeting);
+                });
+            }
+
+            @Override
+            public void onMeetingRemoved(int position, Meeting meeting) {
+                mResultExecutor.execute(() -> {
+                    if (!subscription.mClosed)
+                        listener.onMeetingRemoved(position, meeting);
+                });
+            }
+
+            @Override
+            public void onMeetingsChanged(MeetingChangeSet changes) {
+                mResultExecutor.execute(() -> {
+                    if (!subscription.mClosed)
+                        listener.onMeetingsChanged(changes);
+                });
+            }
+        };
+    }
+
+    public void getConflicts(Meeting meeting, IResultCallback<List<Meeting>> callback) {
+        submit(() -> getService().getConflicts(meeting), callback);
+    }
+
+    public void searchMeetings(String query, int limit, IResultCallback<List<Meeting>> callback) {
+        submit(() -> getService().searchMeetings(query, limit), callback);
+    }
+
+    public void getMeetingsAfter(long start, int id, int count, IResultCallback<List<Meeting>> callback) {
+        submit(() -> getService().getMeetingsAfter(start, id, count), callback);
+    }
+
+    public void getMeetingsBefore(long start, int id, int count, IResultCallback<List<Meeting>> callback) {
+        submit(() -> getService().getMeetingsBefore(start, id, count), callback);
+    }
+
+    public void getMeetingsByStart(int position, int count, IResultCallback<List<Meeting>> callback) {
+        submit(() -> getService().getMeetingsByStart(position, count), callback);
+    }
+
+    /**
+     * Runs any other call on the service thread.
+     */
+    public <T> void submit(Callable<T> call, IResultCallback<T> callback) {
+        mPendingCalls.incrementAndGet();
+        mWorker.execute(() -> {
+            T result;
+            try {
+                result = call.call();
+            } catch (Error e) {
+                // Left to the uncaught exception handler, the call is still counted done
+                mResultExecutor.execute(this::onCallDone);
+                throw e;
+            } catch (Exception e) {
+                mResultExecutor.execute(() -> {
+                    try {
+                        IResultCallback<Exception> errorCallback = mErrorCallback;
+                        if (errorCallback != null)
+                            errorCallback.onResult(e);
+                    } finally {
+                        onCallDone();
+                    }
+                });
+                return;
+            }
+            mResultExecutor.execute(() -> {
+                try {
+                    if (callback != null)
+                        callback.onResult(result);
+                } finally {
+                    onCallDone();
+                }
+            });
+        });
+    }
+
+    private void onCallDone() {
+        Runnable idleListener = mIdleListener;
+        if (mPendingCalls.decrementAndGet() == 0 && idleListener != null)
+            idleListener.run();
+    }
+
+    /**
+     * @return true when every submitted call has run and delivered its result
+     */
+    public boolean isIdle() {
+        return mPendingCalls.get() == 0;
+    }
+
+    /**
+     * @param errorCallback receives on the result executor the exception thrown by any call, instead
+     *                      of its callback
+     */
+    public void setErrorCallback(IResultCallback<Exception> errorCallback) {
+        mErrorCallback = errorCallback;
+    }
+
+    /**
+     * @param idleListener run on the result executor each time the last pending call completes
+     */
+    public void setIdleListener(Runnable idleListener) {
+        mIdleListener = idleListener;
+    }
+
+    public void shutdown() {
+        mWorker.shutdown();
+    }
+
+    /**
+     * A view opened by {@link #observe}. Nothing is delivered once it is closed.
+     */
+    public class Subscription {
+        private volatile boolean mClosed;
+        // Only used on the service thread
+        private MeetingView mView;
+
+        public void close() {
+            mClosed = true;
+            submit(() -> {
+                if (mView != null)
+                    mView.close();
+                return null;
+            }, null);
+        }
+    }
+}
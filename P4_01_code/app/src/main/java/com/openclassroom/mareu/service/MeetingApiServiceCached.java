@@ -0,0 +1,159 @@
+package com.openclassroom.mareu.service;
+
+import com.openclassroom.mareu.callback.IMeetingViewListener;
+import com.openclassroom.mareu.model.Meeting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the results of the last filters in front of another service. Creating or removing a meeting
+ * only drops the results of the filters this meeting matches, the rooms, days and criteria it does
+ * not belong to stay cached.
+ * <p>
+ * Filtered views are opened here on a cached result, and told about the changes made through this
+ * service; the view of all meetings is opened by the wrapped service, which ranks them.
+ * <p>
+ * Concurrent queries are safe, the results are shared under their own lock.
+ */
+public class MeetingApiServiceCached extends MeetingApiServiceWrapper {
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private final Map<MeetingFilter, List<Meeting>> mResults;
+    private final MeetingView.Views mViews = new MeetingView.Views();
+    private int mHitCount;
+    private int mMissCount;
+    private int mInvalidationCount;
+    // Incremented by each change, a result computed across one is not cached
+    private long mGeneration;
+
+    public MeetingApiServiceCached(MeetingApiService service) {
+        this(service, DEFAULT_CAPACITY);
+    }
+
+    public MeetingApiServiceCached(MeetingApiService service, int capacity) {
+        super(service);
+        // Iterated in access order, the eldest entry is the least recently used
+        mResults = new LinkedHashMap<MeetingFilter, List<Meeting>>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<MeetingFilter, List<Meeting>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * @return the number of results dropped because a meeting they match was created or removed
+     */
+    public synchronized int getInvalidationCount() {
+        return mInvalidationCount;
+    }
+
+    public synchronized void clear() {
+        mResults.clear();
+    }
+
+    /**
+     * Drops the results of the filters matching one of meetings, just created or removed.
+     */
+    private synchronized void invalidate(List<Meeting> meetings) {
+        mGeneration++;
+        for (int i = 0; i < meetings.size() && !mResults.isEmpty(); i++) {
+            Iterator<MeetingFilter> filters = mResults.keySet().iterator();
+            while (filters.hasNext()) {
+                if (filters.next().matches(meetings.get(i))) {
+                    filters.remove();
+                    mInvalidationCount++;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void createMeeting(Meeting meeting) {
+        mService.createMeeting(meeting);
+        invalidate(Collections.singletonList(meeting));
+        mViews.onCreated(meeting);
+    }
+
+    @Override
+    public void createMeetings(List<Meeting> meetings) {
+        mService.createMeetings(meetings);
+        invalidate(meetings);
+        mViews.onChanged(Collections.<Meeting>emptyList(), meetings);
+    }
+
+    @Override
+    public void applyBatch(MeetingBatch batch) {
+        List<Meeting> removed = new ArrayList<>();
+        for (Meeting meeting : batch.getRemoved()) {
+            Meeting stored = mService.getMeeting(meeting.getId());
+            if (stored != null)
+                removed.add(stored);
+        }
+        mService.applyBatch(batch);
+        List<Meeting> changed = new ArrayList<>(removed);
+        changed.addAll(batch.getCreated());
+        invalidate(changed);
+        mViews.onChanged(removed, batch.getCreated());
+    }
+
+    @Override
+    public void removeMeeting(Meeting meeting) {
+        Meeting stored = mService.getMeeting(meeting.getId());
+        mService.removeMeeting(meeting);
+        if (stored != null) {
+            invalidate(Collections.singletonList(stored));
+            mViews.onRemoved(stored);
+        }
+    }
+
+    /**
+     * @return a copy of the cached result, owned by the caller
+     */
+    @Override
+    public List<Meeting> getFilteredList(MeetingFilter filter) {
+        List<Meeting> result;
+        long generation;
+        synchronized (this) {
+            result = mResults.get(filter);
+            generation = mGeneration;
+            if (result != null)
+                mHitCount++;
+            else
+                mMissCount++;
+        }
+        if (result == null) {
+            // Computed outside the lock, other filters are served meanwhile, and a change made
+            // meanwhile may be missing from the result
+            result = mService.getFilteredList(filter);
+            synchronized (this) {
+                if (generation == mGeneration)
+                    mResults.put(filter, result);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * A filtered view starts from the cached result of its filter.
+     */
+    @Override
+    public MeetingView observe(MeetingFilter filter, IMeetingViewListener listener) {
+        if (filter.equals(MeetingFilter.any()))
+            return mService.observe(filter, listener);
+        return mViews.open(filter, getFilteredList(filter), listener);
+    }
+}
@@ -0,0 +1,178 @@
+package com.openclassroom.mareu.service;
+
+import com.openclassroom.mareu.callback.IMeetingViewListener;
+import com.openclassroom.mareu.model.Meeting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Makes another service usable from any thread: queries run together under a read lock, creations
+ * and removals one at a time under the write lock.
+ * <p>
+ * The slow part of a change, saving it, runs in a flush after the write lock is downgraded to a
+ * read lock: queries see the change and run meanwhile, the next change waits for the flush.
+ * <p>
+ * {@link #getMeetings()} returns an immutable snapshot rather than the live list. The snapshot is
+ * copied once after each change, by the first reader asking for it, and then read without any lock
+ * so that a writer never delays a list being drawn. The wrapped service must support concurrent
+ * queries.
+ */
+public class MeetingApiServiceConcurrent implements MeetingApiService {
+    private final MeetingApiService mService;
+    private final Runnable mFlush;
+    private final Lock mReadLock;
+    private final Lock mWriteLock;
+    // Null once a change made it stale, only set under the read lock
+    private volatile List<Meeting> mSnapshot;
+
+    private interface Query<T> {
+        T run();
+    }
+
+    public MeetingApiServiceConcurrent(MeetingApiService service) {
+        this(service, () -> {
+        });
+    }
+
+    /**
+     * @param flush run after each change under the read lock, see {@link MeetingApiServicePersistent#flush}
+     */
+    public MeetingApiServiceConcurrent(MeetingApiService service, Runnable flush) {
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        mService = service;
+        mFlush = flush;
+        mReadLock = lock.readLock();
+        mWriteLock = lock.writeLock();
+    }
+
+    private <T> T read(Query<T> query) {
+        mReadLock.lock();
+        try {
+            return query.run();
+        } finally {
+            mReadLock.unlock();
+        }
+    }
+
+    private <T> T write(Query<T> change) {
+        T result;
+        mWriteLock.lock();
+        try {
+            mSnapshot = null;
+            result = change.run();
+            mReadLock.lock();
+        } finally {
+            mWriteLock.unlock();
+        }
+        try {
+            mFlush.run();
+        } finally {
+            mReadLock.unlock();
+        }
+        return result;
+    }
+
+    /**
+     * @return an immutable snapshot of the meetings
+     */
+    @Override
+    public List<Meeting> getMeetings() {
+        List<Meeting> snapshot = mSnapshot;
+        if (snapshot != null)
+            return snapshot;
+        return read(() -> {
+            // Writers are excluded until the lock is released, the copy cannot be stale when published
+            List<Meeting> copy = mSnapshot;
+            if (copy == null) {
+                copy = Collections.unmodifiableList(new ArrayList<>(mService.getMeetings()));
+                mSnapshot = copy;
+            }
+            return copy;
+        });
+    }
+
+    @Override
+    public Meeting getMeeting(int id) {
+        return read(() -> mService.getMeeting(id));
+    }
+
+    @Override
+    public void createMeeting(Meeting meeting) {
+        write(() -> {
+            mService.createMeeting(meeting);
+            return null;
+        });
+    }
+
+    @Override
+    public void createMeetings(List<Meeting> meetings) {
+        write(() -> {
+            mService.createMeetings(meetings);
+            return null;
+        });
+    }
+
+    @Override
+    public void applyBatch(MeetingBatch batch) {
+        write(() -> {
+            mService.applyBatch(batch);
+            return null;
+        });
+    }
+
+    @Override
+    public void removeMeeting(Meeting meeting) {
+        write(() -> {
+            mService.removeMeeting(meeting);
+            return null;
+        });
+    }
+
+    @Override
+    public int indexOfMeeting(Meeting meeting) {
+        return read(() -> mService.indexOfMeeting(meeting));
+    }
+
+    @Override
+    public List<Meeting> getFilteredList(MeetingFilter filter) {
+        return read(() -> mService.getFilteredList(filter));
+    }
+
+    /**
+     * Views are registered under their own lock, the read lock keeps changes out until the view
+     * holds its first meetings.
+     */
+    @Override
+    public MeetingView observe(MeetingFilter filter, IMeetingViewListener listener) {
+        return read(() -> mService.observe(filter, listener));
+    }
+
+    @Override
+    public List<Meeting> getConflicts(Meeting meeting) {
+        return read(() -> mService.getConflicts(meeting));
+    }
+
+    @Override
+    public List<Meeting> searchMeetings(String query, int limit) {
+        return read(() -> mService.searchMeetings(query, limit));
+    }
+
+    @Override
+    public List<Meeting> getMeetingsAfter(long start, int id, int count) {
+        return read(() -> mService.getMeetingsAfter(start, id, count));
+    }
+
+    @Override
+    public List<Meeting> getMeetingsBefore(long start, int id, int count) {
+        return read(() -> mService.getMeetingsBefore(start, id, count));
+    }
+
+    @Override
+    public List<Meeting> getMeetingsByStart(int position, int count) {
+        return read(() -> mService.getMeetingsByStart(position, count));
+    }
+}
@@ -1,26 +1,66 @@
 package com.openclassroom.mareu.service;
 
+import com.openclassroom.mareu.callback.IMeetingViewListener;
 import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.service.index.SearchIndex;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class MeetingApiServiceDummy implements MeetingApiService {
     private final List<Meeting> mMeetings = MeetingListGeneratorDummy.getNewMeetingList();
+    private final MeetingView.Views mViews = new MeetingView.Views();
 
     @Override
     public List<Meeting> getMeetings() {
         return mMeetings;
     }
 
+    @Override
+    public Meeting getMeeting(int id) {
+        for (Meeting meeting : mMeetings) {
+            if (meeting.getId() == id)
+                return meeting;
+        }
+        return null;
+    }
+
     @Override
     public void createMeeting(Meeting meeting) {
         mMeetings.add(meeting);
+        mViews.onCreated(meeting);
+    }
+
+    @Override
+    public void createMeetings(List<Meeting> meetings) {
+        mMeetings.addAll(meetings);
+        mViews.onChanged(Collections.<Meeting>emptyList(), meetings);
     }
 
     @Override
     public void removeMeeting(Meeting meeting) {
-        mMeetings.remove(meeting);
+        int index = mMeetings.indexOf(meeting);
+        if (index >= 0)
+            mViews.onRemoved(mMeetings.remove(index));
+    }
+
+    @Override
+    public void applyBatch(MeetingBatch batch) {
+        Set<Integer> removedIds = new HashSet<>();
+        for (Meeting meeting : batch.getRemoved())
+            removedIds.add(meeting.getId());
+        List<Meeting> removed = new ArrayList<>();
+        List<Meeting> kept = new ArrayList<>(mMeetings.size());
+        for (Meeting meeting : mMeetings)
+            (removedIds.contains(meeting.getId()) ? removed : kept).add(meeting);
+        mMeetings.clear();
+        mMeetings.addAll(kept);
+        List<Meeting> created = batch.getCreated();
+        mMeetings.addAll(created);
+        mViews.onChanged(removed, created);
     }
 
     @Override
@@ -29,12 +69,76 @@ public class MeetingApiServiceDummy implements MeetingApiService {
     }
 
     @Override
-    public List<Meeting> getFilteredList(String room, String date) {
-        List<Meeting> newFilteredList = new ArrayList<>();
+    public List<Meeting> getFilteredList(MeetingFilter filter) {
+        List<Meeting> result = new ArrayList<>();
+        for (Meeting meeting : sortByStartThenId()) {
+            if (filter.matches(meeting))
+                result.add(meeting);
+        }
+        return result;
+    }
+
+    @Override
+    public MeetingView observe(MeetingFilter filter, IMeetingViewListener listener) {
+        return mViews.open(filter, getFilteredList(filter), listener);
+    }
+
+    @Override
+    public List<Meeting> getConflicts(Meeting meeting) {
+        List<Meeting> conflicts = new ArrayList<>();
+        for (Meeting other : getMeetings()) {
+            if (other.getId() != meeting.getId() && other.getRoom() == meeting.getRoom()
+                    && other.getStart() < meeting.getEnd() && other.getEnd() > meeting.getStart())
+                conflicts.add(other);
+        }
+        return conflicts;
+    }
+
+    @Override
+    public List<Meeting> searchMeetings(String query, int limit) {
+        List<Meeting> result = new ArrayList<>();
+        if (SearchIndex.words(query).length == 0)
+            return result;
         for (Meeting meeting : getMeetings()) {
-            if (meeting.getRoom().equals(room) && meeting.getDate().equals(date))
-                newFilteredList.add(meeting);
+            if (SearchIndex.matches(meeting, query))
+                result.add(meeting);
         }
-        return newFilteredList;
+        Collections.sort(result, Meeting.BY_START);
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    @Override
+    public List<Meeting> getMeetingsAfter(long start, int id, int count) {
+        List<Meeting> sorted = sortByStartThenId();
+        int from = 0;
+        while (from < sorted.size() && compare(sorted.get(from), start, id) <= 0)
+            from++;
+        return new ArrayList<>(sorted.subList(from, Math.min(sorted.size(), from + count)));
+    }
+
+    @Override
+    public List<Meeting> getMeetingsBefore(long start, int id, int count) {
+        List<Meeting> sorted = sortByStartThenId();
+        int to = 0;
+        while (to < sorted.size() && compare(sorted.get(to), start, id) < 0)
+            to++;
+        return new ArrayList<>(sorted.subList(Math.max(0, to - count), to));
+    }
+
+    @Override
+    public List<Meeting> getMeetingsByStart(int position, int count) {
+        List<Meeting> sorted = sortByStartThenId();
+        int from = Math.max(0, Math.min(position, sorted.size()));
+        return new ArrayList<>(sorted.subList(from, Math.min(sorted.size(), from + count)));
+    }
+
+    private List<Meeting> sortByStartThenId() {
+        List<Meeting> sorted = new ArrayList<>(getMeetings());
+        Collections.sort(sorted, Meeting.BY_START);
+        return sorted;
+    }
+
+    private static int compare(Meeting meeting, long start, int id) {
+        return meeting.getStart() != start ? Long.compare(meeting.getStart(), start) : Integer.compare(meeting.getId(), id);
     }
 }
@@ -0,0 +1,276 @@
+package com.openclassroom.mareu.service;
+
+import com.openclassroom.mareu.callback.IMeetingViewListener;
+import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.model.MeetingTime;
+import com.openclassroom.mareu.model.ParticipantDictionary;
+import com.openclassroom.mareu.service.index.MeetingSlots;
+import com.openclassroom.mareu.service.index.ParticipantIndex;
+import com.openclassroom.mareu.service.index.RoomConflictIndex;
+import com.openclassroom.mareu.service.index.RoomDayIndex;
+import com.openclassroom.mareu.service.index.SearchIndex;
+import com.openclassroom.mareu.service.index.TimeIndex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class MeetingApiServiceIndexed implements MeetingApiService {
+    private static final int MAX_ROOM_DAY_BUCKETS = 4096;
+
+    private final MeetingSlots mMeetings = new MeetingSlots();
+    private final RoomDayIndex mRoomDayIndex = new RoomDayIndex();
+    private final TimeIndex mTimeIndex = new TimeIndex();
+    private final RoomConflictIndex mRoomConflictIndex = new RoomConflictIndex();
+    private final ParticipantIndex mParticipantIndex = new ParticipantIndex();
+    private final SearchIndex mSearchIndex = new SearchIndex(mParticipantIndex, mTimeIndex);
+    private final MeetingView.Views mViews = new MeetingView.Views();
+    private final MeetingView.Ranking mRanking = new MeetingView.Ranking() {
+        @Override
+        public int rank(Meeting meeting) {
+            return mTimeIndex.rank(meeting);
+        }
+
+        @Override
+        public int size() {
+            return count();
+        }
+
+        @Override
+        public List<Meeting> all() {
+            return getMeetingsByStart(0, count());
+        }
+    };
+
+    public MeetingApiServiceIndexed() {
+        this(MeetingListGeneratorDummy.getNewMeetingList());
+    }
+
+    public MeetingApiServiceIndexed(List<Meeting> meetings) {
+        checkNewMeetings(Collections.<Meeting>emptyList(), meetings);
+        insertAll(meetings);
+    }
+
+    @Override
+    public List<Meeting> getMeetings() {
+        return mMeetings.asList();
+    }
+
+    @Override
+    public Meeting getMeeting(int id) {
+        return mMeetings.get(id);
+    }
+
+    @Override
+    public void createMeeting(Meeting meeting) {
+        insert(meeting);
+        mViews.onCreated(meeting);
+    }
+
+    /**
+     * Creates all meetings, rebuilding the start order once for a batch larger than the store.
+     */
+    @Override
+    public void createMeetings(List<Meeting> meetings) {
+        checkNewMeetings(Collections.<Meeting>emptyList(), meetings);
+        insertAll(meetings);
+        mViews.onChanged(Collections.<Meeting>emptyList(), meetings);
+    }
+
+    /**
+     * Checks that every meeting of created can be stored once the stored meetings of removed are
+     * gone, before any index changes: a batch is applied entirely or not at all.
+     *
+     * @throws IllegalArgumentException if two meetings of created have the same id, or one has the
+     *                                  id of a stored meeting which is not removed
+     */
+    void checkNewMeetings(List<Meeting> removed, List<Meeting> created) {
+        Set<Integer> freed = new HashSet<>();
+        for (Meeting meeting : removed) {
+            if (mMeetings.get(meeting.getId()) != null)
+                freed.add(meeting.getId());
+        }
+        Set<Integer> ids = new HashSet<>(created.size() * 2);
+        for (Meeting meeting : created) {
+            if (!ids.add(meeting.getId()) || (mMeetings.get(meeting.getId()) != null && !freed.contains(meeting.getId())))
+                throw new IllegalArgumentException("Meeting " + meeting.getId() + " already added");
+        }
+    }
+
+    private void insert(Meeting meeting) {
+        mMeetings.add(meeting);
+        mRoomDayIndex.add(meeting);
+        mTimeIndex.add(meeting);
+        mRoomConflictIndex.add(meeting);
+        mParticipantIndex.add(meeting);
+        mSearchIndex.add(meeting);
+    }
+
+    /**
+     * Adds a batch sorted by start then id: the meeting sets of participants and subject words are
+     * merged with their part of the batch in linear time, and the sorted maps are walked along
+     * neighbouring nodes still in cache rather than from the root down to a random leaf.
+     * Views are not told, the caller does.
+     */
+    void insertAll(List<Meeting> meetings) {
+        for (Meeting meeting : meetings) {
+            mMeetings.add(meeting);
+            mRoomDayIndex.add(meeting);
+        }
+        List<Meeting> byStart = new ArrayList<>(meetings);
+        Collections.sort(byStart, Meeting.BY_START);
+        for (Meeting meeting : byStart)
+            mRoomConflictIndex.add(meeting);
+        mTimeIndex.addAll(byStart);
+        mParticipantIndex.addAll(byStart);
+        mSearchIndex.addAll(byStart);
+    }
+
+    @Override
+    public void removeMeeting(Meeting meeting) {
+        Meeting stored = mMeetings.remove(meeting);
+        if (stored != null) {
+            mRoomDayIndex.remove(stored);
+            mTimeIndex.remove(stored);
+            mRoomConflictIndex.remove(stored);
+            mParticipantIndex.remove(stored);
+            mSearchIndex.remove(stored);
+            mViews.onRemoved(stored);
+        }
+    }
+
+    /**
+     * Removes the meetings of batch from the start order, participant and word sets at once,
+     * rebuilding those losing many of their meetings, then adds its creations as
+     * {@link #createMeetings} does.
+     */
+    @Override
+    public void applyBatch(MeetingBatch batch) {
+        List<Meeting> created = batch.getCreated();
+        checkNewMeetings(batch.getRemoved(), created);
+        List<Meeting> removed = new ArrayList<>();
+        for (Meeting meeting : batch.getRemoved()) {
+            Meeting stored = mMeetings.remove(meeting);
+            if (stored != null) {
+                mRoomDayIndex.remove(stored);
+                mRoomConflictIndex.remove(stored);
+                removed.add(stored);
+            }
+        }
+        mParticipantIndex.removeAll(removed);
+        mSearchIndex.removeAll(removed);
+        mTimeIndex.removeAll(removed);
+        insertAll(created);
+        mViews.onChanged(removed, created);
+    }
+
+    /**
+     * @return the number of stored meetings
+     */
+    int count() {
+        return mTimeIndex.size();
+    }
+
+    @Override
+    public int indexOfMeeting(Meeting meeting) {
+        return mMeetings.indexOf(meeting);
+    }
+
+    /**
+     * Reads the candidates from the index giving the fewest of them, the room and day buckets, the
+     * meetings of the participant or the meetings starting in the range, then checks every criterion
+     * on them. A time of day window reads the range day by day from the time index.
+     */
+    @Override
+    public List<Meeting> getFilteredList(MeetingFilter filter) {
+        long from = filter.getFrom();
+        long to = filter.getTo();
+        if (from >= to)
+            return new ArrayList<>();
+        int firstPosition = mTimeIndex.positionOf(from);
+        int timeCost = mTimeIndex.positionOf(to) - firstPosition;
+        int firstDay = MeetingTime.epochDay(Math.max(from, (long) Integer.MIN_VALUE * MeetingTime.MINUTES_PER_DAY));
+        int lastDay = MeetingTime.epochDay(Math.min(to, (long) Integer.MAX_VALUE * MeetingTime.MINUTES_PER_DAY) - 1);
+
+        int participant = -1;
+        int participantCost = Integer.MAX_VALUE;
+        if (filter.getParticipant() != null) {
+            participant = ParticipantDictionary.getInstance().find(filter.getParticipant());
+            participantCost = mParticipantIndex.get(participant).size();
+        }
+
+        int[] rooms = filter.getRooms();
+        long roomDayCost = Long.MAX_VALUE;
+        if (rooms.length > 0 && (long) rooms.length * ((long) lastDay - firstDay + 1) <= MAX_ROOM_DAY_BUCKETS) {
+            roomDayCost = 0;
+            for (int room : rooms) {
+                for (int day = firstDay; day <= lastDay; day++)
+                    roomDayCost += mRoomDayIndex.get(room, day).size();
+            }
+        }
+
+        List<Meeting> candidates;
+        boolean sorted = true;
+        if (roomDayCost <= participantCost && roomDayCost <= timeCost) {
+            candidates = new ArrayList<>((int) roomDayCost);
+            for (int room : rooms) {
+                for (int day = firstDay; day <= lastDay; day++)
+                    candidates.addAll(mRoomDayIndex.get(room, day));
+            }
+            sorted = false;
+        } else if (participantCost <= timeCost)
+            candidates = mParticipantIndex.between(participant, from, to);
+        else if (filter.hasTimeOfDay())
+            candidates = mTimeIndex.inTimeWindow(firstDay, lastDay, filter.getFromMinuteOfDay(), filter.getToMinuteOfDay());
+        else
+            candidates = mTimeIndex.fromPosition(firstPosition, timeCost);
+
+        List<Meeting> result = new ArrayList<>();
+        for (Meeting meeting : candidates) {
+            if (filter.matches(meeting))
+                result.add(meeting);
+        }
+        if (!sorted)
+            Collections.sort(result, Meeting.BY_START);
+        return result;
+    }
+
+    /**
+     * A view of all meetings reads its positions from the time index instead of copying them.
+     */
+    @Override
+    public MeetingView observe(MeetingFilter filter, IMeetingViewListener listener) {
+        if (filter.equals(MeetingFilter.any()))
+            return mViews.openAll(mRanking, listener);
+        return mViews.open(filter, getFilteredList(filter), listener);
+    }
+
+    @Override
+    public List<Meeting> getConflicts(Meeting meeting) {
+        List<Meeting> conflicts = mRoomConflictIndex.overlapping(meeting.getRoom(), meeting.getStart(), meeting.getEnd());
+        conflicts.remove(meeting);
+        return conflicts;
+    }
+
+    @Override
+    public List<Meeting> searchMeetings(String query, int limit) {
+        return mSearchIndex.search(query, limit);
+    }
+
+    @Override
+    public List<Meeting> getMeetingsAfter(long start, int id, int count) {
+        return mTimeIndex.after(start, id, count);
+    }
+
+    @Override
+    public List<Meeting> getMeetingsBefore(long start, int id, int count) {
+        return mTimeIndex.before(start, id, count);
+    }
+
+    @Override
+    public List<Meeting> getMeetingsByStart(int position, int count) {
+        return mTimeIndex.fromPosition(Math.max(0, position), count);
+    }
+}
@@ -0,0 +1,273 @@
+package com.openclassroom.mareu.service;
+
+import com.openclassroom.mareu.callback.IMeetingViewListener;
+import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.service.storage.MeetingLog;
+import com.openclassroom.mareu.service.storage.MeetingSnapshot;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Indexed service saved in a directory: every creation or removal is appended to a log, and the
+ * log is folded into a snapshot once it holds more records than the store itself.
+ * <p>
+ * The indexes are built from the snapshot by the first call needing them. Until then the number of
+ * meetings and the pages of meetings by time are read from the mapped snapshot, whose records are
+ * sorted by start then id, so the first screen does not wait for every record to be decoded.
+ */
+public class MeetingApiServicePersistent extends MeetingApiServiceIndexed {
+    private static final String SNAPSHOT_FILE = "meetings.snapshot";
+    private static final String LOG_FILE = "meetings.log";
+    private static final int MIN_RECORDS_BEFORE_COMPACTION = 1024;
+
+    private final File mSnapshotFile;
+    private final MeetingLog mLog;
+    private final Object mLoadLock = new Object();
+    private long mGeneration;
+    private volatile boolean mFlushDeferred;
+    // The meetings not in the indexes yet, null once they are
+    private volatile MeetingSnapshot mSnapshot;
+
+    public MeetingApiServicePersistent(File directory) {
+        this(directory, MeetingListGeneratorDummy.getNewMeetingList());
+    }
+
+    /**
+     * @param firstLaunchMeetings meetings saved when the directory holds no store yet, streamed one by one
+     */
+    public MeetingApiServicePersistent(File directory, Iterable<Meeting> firstLaunchMeetings) {
+        super(Collections.<Meeting>emptyList());
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IllegalArgumentException("Cannot create " + directory);
+        mSnapshotFile = new File(directory, SNAPSHOT_FILE);
+
+        // The first launch writes the snapshot before the log, a store without one holds no change
+        if (!mSnapshotFile.exists()) {
+            for (Meeting meeting : firstLaunchMeetings)
+                super.createMeeting(meeting);
+            mGeneration = 1;
+            MeetingSnapshot.write(mSnapshotFile, mGeneration, getMeetingsByStart(0, count()));
+        } else {
+            MeetingSnapshot snapshot = MeetingSnapshot.open(mSnapshotFile);
+            mGeneration = snapshot.getGeneration();
+            // Meetings created before the snapshot is decoded must not reuse its ids
+            Meeting.reserveId(snapshot.getMaxId());
+            mSnapshot = snapshot;
+        }
+
+        // Replaying a change needs the indexes, only an empty log leaves the snapshot unloaded
+        mLog = new MeetingLog(new File(directory, LOG_FILE));
+        mLog.open(mGeneration, new MeetingLog.Replay() {
+            @Override
+            public void onCreate(Meeting meeting) {
+                load();
+                MeetingApiServicePersistent.super.createMeeting(meeting);
+            }
+
+            @Override
+            public void onRemove(Meeting meeting) {
+                load();
+                MeetingApiServicePersistent.super.removeMeeting(meeting);
+            }
+        });
+    }
+
+    /**
+     * Adds the meetings of the snapshot to the indexes, once. Any thread may call it, readers
+     * still use the snapshot until the indexes are complete.
+     */
+    private void load() {
+        if (mSnapshot == null)
+            return;
+        synchronized (mLoadLock) {
+            MeetingSnapshot snapshot = mSnapshot;
+            if (snapshot == null)
+                return;
+            // Decoded once, so that every index holds the same instances
+            insertAll(new ArrayList<>(snapshot.asList()));
+            mSnapshot = null;
+        }
+    }
+
+    @Override
+    int count() {
+        MeetingSnapshot snapshot = mSnapshot;
+        return snapshot != null ? snapshot.size() : super.count();
+    }
+
+    @Override
+    public List<Meeting> getMeetings() {
+        load();
+        return super.getMeetings();
+    }
+
+    @Override
+    public Meeting getMeeting(int id) {
+        load();
+        return super.getMeeting(id);
+    }
+
+    @Override
+    public int indexOfMeeting(Meeting meeting) {
+        load();
+        return super.indexOfMeeting(meeting);
+    }
+
+    @Override
+    public List<Meeting> getFilteredList(MeetingFilter filter) {
+        load();
+        return super.getFilteredList(filter);
+    }
+
+    /**
+     * The view of all meetings only reads their number and pages until a change is made.
+     */
+    @Override
+    public MeetingView observe(MeetingFilter filter, IMeetingViewListener listener) {
+        if (!filter.equals(MeetingFilter.any()))
+            load();
+        return super.observe(filter, listener);
+    }
+
+    @Override
+    public List<Meeting> getConflicts(Meeting meeting) {
+        load();
+        return super.getConflicts(meeting);
+    }
+
+    @Override
+    public List<Meeting> searchMeetings(String query, int limit) {
+        load();
+        return super.searchMeetings(query, limit);
+    }
+
+    @Override
+    public List<Meeting> getMeetingsAfter(long start, int id, int count) {
+        MeetingSnapshot snapshot = mSnapshot;
+        if (snapshot == null)
+            return super.getMeetingsAfter(start, id, count);
+        int from = snapshot.countBefore(start, id);
+        if (from < snapshot.size() && snapshot.compare(from, start, id) == 0)
+            from++;
+        return range(snapshot, from, count);
+    }
+
+    @Override
+    public List<Meeting> getMeetingsBefore(long start, int id, int count) {
+        MeetingSnapshot snapshot = mSnapshot;
+        if (snapshot == null)
+            return super.getMeetingsBefore(start, id, count);
+        int to = snapshot.countBefore(start, id);
+        int from = Math.max(0, to - count);
+        return range(snapshot, from, to - from);
+    }
+
+    @Override
+    public List<Meeting> getMeetingsByStart(int position, int count) {
+        MeetingSnapshot snapshot = mSnapshot;
+        if (snapshot == null)
+            return super.getMeetingsByStart(position, count);
+        return range(snapshot, Math.max(0, position), count);
+    }
+
+    private static List<Meeting> range(MeetingSnapshot snapshot, int from, int count) {
+        int start = Math.min(from, snapshot.size());
+        int end = (int) Math.min(snapshot.size(), (long) start + Math.max(0, count));
+        return new ArrayList<>(snapshot.asList().subList(start, end));
+    }
+
+    /**
+     * @param deferred true to leave syncing and compacting the log after each change to the caller,
+     *                 which calls {@link #flush} before telling the change is done. A concurrent
+     *                 service does so once its write lock is released, queries do not wait for the
+     *                 storage device.
+     */
+    public void setFlushDeferred(boolean deferred) {
+        mFlushDeferred = deferred;
+    }
+
+    /**
+     * Syncs the log, then folds it into the snapshot if it holds more records than the store. The
+     * store must not change meanwhile, queries may run.
+     */
+    public void flush() {
+        mLog.sync();
+        compactIfNeeded();
+    }
+
+    private void flushIfNotDeferred() {
+        if (!mFlushDeferred)
+            flush();
+    }
+
+    /**
+     * Changes are checked before being logged, a change the store refuses must not be replayed, and
+     * the log is synced before the change is reported done: a change seen by a caller survives a
+     * power loss.
+     */
+    @Override
+    public void createMeeting(Meeting meeting) {
+        load();
+        checkNewMeetings(Collections.<Meeting>emptyList(), Collections.singletonList(meeting));
+        mLog.appendCreate(meeting);
+        super.createMeeting(meeting);
+        flushIfNotDeferred();
+    }
+
+    @Override
+    public void createMeetings(List<Meeting> meetings) {
+        load();
+        checkNewMeetings(Collections.<Meeting>emptyList(), meetings);
+        mLog.appendBatch(Collections.<Meeting>emptyList(), meetings);
+        super.createMeetings(meetings);
+        flushIfNotDeferred();
+    }
+
+    @Override
+    public void applyBatch(MeetingBatch batch) {
+        load();
+        List<Meeting> created = batch.getCreated();
+        List<Meeting> removed = new ArrayList<>();
+        for (Meeting meeting : batch.getRemoved()) {
+            if (getMeeting(meeting.getId()) != null)
+                removed.add(meeting);
+        }
+        checkNewMeetings(removed, created);
+        mLog.appendBatch(removed, created);
+        super.applyBatch(batch);
+        flushIfNotDeferred();
+    }
+
+    @Override
+    public void removeMeeting(Meeting meeting) {
+        load();
+        if (getMeeting(meeting.getId()) == null)
+            return;
+        mLog.appendRemove(meeting);
+        super.removeMeeting(meeting);
+        flushIfNotDeferred();
+    }
+
+    private void compactIfNeeded() {
+        int records = mLog.getRecordCount();
+        if (records >= MIN_RECORDS_BEFORE_COMPACTION && records > count())
+            compact();
+    }
+
+    /**
+     * Writes the whole store to the snapshot, sorted by start then id, and empties the log.
+     */
+    public void compact() {
+        load();
+        MeetingSnapshot.write(mSnapshotFile, mGeneration + 1, getMeetingsByStart(0, count()));
+        mGeneration++;
+        mLog.truncate(mGeneration);
+    }
+
+    public void close() {
+        mLog.close();
+    }
+}
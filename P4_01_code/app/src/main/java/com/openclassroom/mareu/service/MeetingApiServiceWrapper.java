@@ -0,0 +1,95 @@
+package com.openclassroom.mareu.service;
+
+import com.openclassroom.mareu.callback.IMeetingViewListener;
+import com.openclassroom.mareu.model.Meeting;
+
+import java.util.List;
+
+/**
+ * Service forwarding every call to another one, to extend by overriding only the calls a wrapper
+ * changes.
+ */
+public abstract class MeetingApiServiceWrapper implements MeetingApiService {
+    protected final MeetingApiService mService;
+
+    protected MeetingApiServiceWrapper(MeetingApiService service) {
+        mService = service;
+    }
+
+    /**
+     * @return the wrapped service
+     */
+    public MeetingApiService getService() {
+        return mService;
+    }
+
+    @Override
+    public List<Meeting> getMeetings() {
+        return mService.getMeetings();
+    }
+
+    @Override
+    public Meeting getMeeting(int id) {
+        return mService.getMeeting(id);
+    }
+
+    @Override
+    public void createMeeting(Meeting meeting) {
+        mService.createMeeting(meeting);
+    }
+
+    @Override
+    public void createMeetings(List<Meeting> meetings) {
+        mService.createMeetings(meetings);
+    }
+
+    @Override
+    public void removeMeeting(Meeting meeting) {
+        mService.removeMeeting(meeting);
+    }
+
+    @Override
+    public void applyBatch(MeetingBatch batch) {
+        mService.applyBatch(batch);
+    }
+
+    @Override
+    public int indexOfMeeting(Meeting meeting) {
+        return mService.indexOfMeeting(meeting);
+    }
+
+    @Override
+    public List<Meeting> getFilteredList(MeetingFilter filter) {
+        return mService.getFilteredList(filter);
+    }
+
+    @Override
+    public MeetingView observe(MeetingFilter filter, IMeetingViewListener listener) {
+        return mService.observe(filter, listener);
+    }
+
+    @Override
+    public List<Meeting> getConflicts(Meeting meeting) {
+        return mService.getConflicts(meeting);
+    }
+
+    @Override
+    public List<Meeting> searchMeetings(String query, int limit) {
+        return mService.searchMeetings(query, limit);
+    }
+
+    @Override
+    public List<Meeting> getMeetingsAfter(long start, int id, int count) {
+        return mService.getMeetingsAfter(start, id, count);
+    }
+
+    @Override
+    public List<Meeting> getMeetingsBefore(long start, int id, int count) {
+        return mService.getMeetingsBefore(start, id, count);
+    }
+
+    @Override
+    public List<Meeting> getMeetingsByStart(int position, int count) {
+        return mService.getMeetingsByStart(position, count);
+    }
+}
@@ -0,0 +1,192 @@
+package com.openclassroom.mareu.service;
+
+import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.model.MeetingTime;
+import com.openclassroom.mareu.service.index.SearchIndex;
+import com.openclassroom.mareu.service.storage.MeetingSnapshot;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Past meetings moved out of a service, sorted by start then id in a single {@link MeetingSnapshot}
+ * file read through a memory map: they take no heap until a query decodes them, and a query over a
+ * time range reads only the records of that range.
+ * <p>
+ * Each change writes a new segment merging the current one with the change, which suits changes
+ * made about once a day. Queries may run from any thread.
+ */
+public class MeetingArchive {
+    private final File mFile;
+    private MeetingSnapshot mSegment;
+    // Id in the high half, record index in the low half, sorted; built by the first lookup by id
+    private long[] mIdIndexes;
+
+    /**
+     * @param file the segment file, opened if it exists
+     */
+    public MeetingArchive(File file) {
+        mFile = file;
+        if (file.exists()) {
+            mSegment = MeetingSnapshot.open(file);
+            // New meetings must not reuse archived ids
+            Meeting.reserveId(mSegment.getMaxId());
+        }
+    }
+
+    public synchronized int size() {
+        return mSegment != null ? mSegment.size() : 0;
+    }
+
+    /**
+     * Adds meetings to the archive, replacing archived ones with the same id.
+     */
+    public synchronized void addAll(List<Meeting> meetings) {
+        if (meetings.isEmpty())
+            return;
+        List<Meeting> batch = new ArrayList<>(meetings);
+        Collections.sort(batch, Meeting.BY_START);
+        Set<Integer> ids = new HashSet<>();
+        for (Meeting meeting : batch)
+            ids.add(meeting.getId());
+        List<Meeting> merged = new ArrayList<>(size() + batch.size());
+        int next = 0;
+        for (int i = 0; i < size(); i++) {
+            if (ids.contains(mSegment.getId(i)))
+                continue;
+            while (next < batch.size() && mSegment.compare(i, batch.get(next).getStart(), batch.get(next).getId()) > 0)
+                merged.add(batch.get(next++));
+            merged.add(mSegment.get(i));
+        }
+        merged.addAll(batch.subList(next, batch.size()));
+        write(merged);
+    }
+
+    /**
+     * @return true if meeting was archived and is now removed
+     */
+    public synchronized boolean remove(Meeting meeting) {
+        int index = indexOf(meeting.getId());
+        if (index < 0)
+            return false;
+        // The other records are copied without being decoded
+        mSegment.writeWithout(index, mFile, mSegment.getGeneration() + 1);
+        mSegment = MeetingSnapshot.open(mFile);
+        mIdIndexes = null;
+        return true;
+    }
+
+    private void write(List<Meeting> meetings) {
+        long generation = mSegment != null ? mSegment.getGeneration() + 1 : 1;
+        MeetingSnapshot.write(mFile, generation, meetings);
+        mSegment = MeetingSnapshot.open(mFile);
+        mIdIndexes = null;
+    }
+
+    /**
+     * @return the archived meeting with this id, null if there is none
+     */
+    public synchronized Meeting getMeeting(int id) {
+        int index = indexOf(id);
+        return index >= 0 ? mSegment.get(index) : null;
+    }
+
+    private int indexOf(int id) {
+        if (mIdIndexes == null) {
+            // Records are not sorted by id, but reading an id does not decode the meeting
+            long[] idIndexes = new long[size()];
+            for (int i = 0; i < idIndexes.length; i++)
+                idIndexes[i] = (long) mSegment.getId(i) << 32 | i;
+            Arrays.sort(idIndexes);
+            mIdIndexes = idIndexes;
+        }
+        int position = Arrays.binarySearch(mIdIndexes, (long) id << 32);
+        if (position < 0)
+            position = -position - 1;
+        return position < mIdIndexes.length && (int) (mIdIndexes[position] >> 32) == id
+                ? (int) mIdIndexes[position] : -1;
+    }
+
+    /**
+     * @return archived meetings starting in [from, to) (minutes since epoch), sorted by start then id
+     */
+    public synchronized List<Meeting> getMeetingsBetween(long from, long to) {
+        List<Meeting> result = new ArrayList<>();
+        for (int i = countBefore(from, Integer.MIN_VALUE); i < size() && mSegment.getStart(i) < to; i++)
+            result.add(mSegment.get(i));
+        return result;
+    }
+
+    /**
+     * @return archived meetings meeting every criterion of filter, sorted by start then id
+     */
+    public synchronized List<Meeting> getFilteredList(MeetingFilter filter) {
+        int[] rooms = filter.getRooms();
+        long from = (long) filter.getFromDay() * MeetingTime.MINUTES_PER_DAY;
+        long to = ((long) filter.getToDay() + 1) * MeetingTime.MINUTES_PER_DAY;
+        List<Meeting> result = new ArrayList<>();
+        for (int i = countBefore(from, Integer.MIN_VALUE); i < size() && mSegment.getStart(i) < to; i++) {
+            // The room is checked on the record before decoding the meeting
+            if (rooms.length > 0 && Arrays.binarySearch(rooms, mSegment.getRoom(i)) < 0)
+                continue;
+            Meeting meeting = mSegment.get(i);
+            if (filter.matches(meeting))
+                result.add(meeting);
+        }
+        return result;
+    }
+
+    /**
+     * @return at most limit archived meetings sorted by start then id matching query as in
+     * {@link MeetingApiService#searchMeetings}
+     */
+    public synchronized List<Meeting> searchMeetings(String query, int limit) {
+        List<Meeting> result = new ArrayList<>();
+        if (SearchIndex.words(query).length == 0)
+            return result;
+        for (int i = 0; i < size() && result.size() < limit; i++) {
+            Meeting meeting = mSegment.get(i);
+            if (SearchIndex.matches(meeting, query))
+                result.add(meeting);
+        }
+        return result;
+    }
+
+    /**
+     * Keyset paging of the archive, as {@link MeetingApiService#getMeetingsAfter}.
+     */
+    public synchronized List<Meeting> getMeetingsAfter(long start, int id, int count) {
+        int from = countBefore(start, id);
+        if (from < size() && mSegment.compare(from, start, id) == 0)
+            from++;
+        return range(from, count);
+    }
+
+    /**
+     * Keyset paging of the archive, as {@link MeetingApiService#getMeetingsBefore}.
+     */
+    public synchronized List<Meeting> getMeetingsBefore(long start, int id, int count) {
+        int to = countBefore(start, id);
+        int from = Math.max(0, to - count);
+        return range(from, to - from);
+    }
+
+    private List<Meeting> range(int from, int count) {
+        List<Meeting> result = new ArrayList<>();
+        for (int i = from; i < size() && result.size() < count; i++)
+            result.add(mSegment.get(i));
+        return result;
+    }
+
+    /**
+     * @return the number of archived meetings sorted before the key (start, id)
+     */
+    private int countBefore(long start, int id) {
+        return mSegment != null ? mSegment.countBefore(start, id) : 0;
+    }
+}
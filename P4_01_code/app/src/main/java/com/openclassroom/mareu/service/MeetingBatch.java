@@ -0,0 +1,54 @@
+package com.openclassroom.mareu.service;
+
+import com.openclassroom.mareu.model.Meeting;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Meetings to create and remove together with {@link MeetingApiService#applyBatch}. A meeting
+ * created then removed in the same batch is dropped from it, the removals are applied before the
+ * creations so that removing then creating a meeting replaces it.
+ */
+public class MeetingBatch {
+    private final Map<Integer, Meeting> mRemoved = new LinkedHashMap<>();
+    private final Map<Integer, Meeting> mCreated = new LinkedHashMap<>();
+
+    public MeetingBatch create(Meeting meeting) {
+        mCreated.put(meeting.getId(), meeting);
+        return this;
+    }
+
+    public MeetingBatch createAll(Collection<Meeting> meetings) {
+        for (Meeting meeting : meetings)
+            create(meeting);
+        return this;
+    }
+
+    public MeetingBatch remove(Meeting meeting) {
+        if (mCreated.remove(meeting.getId()) == null)
+            mRemoved.put(meeting.getId(), meeting);
+        return this;
+    }
+
+    public MeetingBatch removeAll(Collection<Meeting> meetings) {
+        for (Meeting meeting : meetings)
+            remove(meeting);
+        return this;
+    }
+
+    public List<Meeting> getRemoved() {
+        return new ArrayList<>(mRemoved.values());
+    }
+
+    public List<Meeting> getCreated() {
+        return new ArrayList<>(mCreated.values());
+    }
+
+    public boolean isEmpty() {
+        return mRemoved.isEmpty() && mCreated.isEmpty();
+    }
+}
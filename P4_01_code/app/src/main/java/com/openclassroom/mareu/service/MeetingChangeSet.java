@@ -0,0 +1,74 @@
+package com.openclassroom.mareu.service;
+
+import com.openclassroom.mareu.model.Meeting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Every change made to a {@link MeetingView} by a batch: the meetings removed, at their positions
+ * in the list before the batch, and the meetings inserted, at their positions in the list after it.
+ * Both are in ascending order of position.
+ */
+public class MeetingChangeSet {
+    private final int[] mRemovedPositions;
+    private final List<Meeting> mRemoved;
+    private final int[] mInsertedPositions;
+    private final List<Meeting> mInserted;
+
+    MeetingChangeSet(int[] removedPositions, List<Meeting> removed, int[] insertedPositions, List<Meeting> inserted) {
+        mRemovedPositions = removedPositions;
+        mRemoved = Collections.unmodifiableList(removed);
+        mInsertedPositions = insertedPositions;
+        mInserted = Collections.unmodifiableList(inserted);
+    }
+
+    /**
+     * @return the positions of the removed meetings in the list before the change
+     */
+    public int[] getRemovedPositions() {
+        return mRemovedPositions.clone();
+    }
+
+    public List<Meeting> getRemoved() {
+        return mRemoved;
+    }
+
+    /**
+     * @return the positions of the inserted meetings in the list after the change
+     */
+    public int[] getInsertedPositions() {
+        return mInsertedPositions.clone();
+    }
+
+    public List<Meeting> getInserted() {
+        return mInserted;
+    }
+
+    public boolean isEmpty() {
+        return mRemoved.isEmpty() && mInserted.isEmpty();
+    }
+
+    /**
+     * @param meetings the list before the change
+     * @return a new list with the change applied, built in one pass
+     */
+    public List<Meeting> applyTo(List<Meeting> meetings) {
+        List<Meeting> result = new ArrayList<>(meetings.size() - mRemoved.size() + mInserted.size());
+        int removed = 0;
+        int inserted = 0;
+        for (int i = 0; i < meetings.size(); i++) {
+            if (removed < mRemovedPositions.length && mRemovedPositions[removed] == i) {
+                removed++;
+                continue;
+            }
+            while (inserted < mInsertedPositions.length && mInsertedPositions[inserted] == result.size())
+                result.add(mInserted.get(inserted++));
+            result.add(meetings.get(i));
+        }
+        while (inserted < mInsertedPositions.length)
+            result.add(mInserted.get(inserted++));
+        return result;
+    }
+}
@@ -0,0 +1,200 @@
+package com.openclassroom.mareu.service;
+
+import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.model.MeetingTime;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Criteria a meeting must all meet to be listed, unset ones accept any meeting. Immutable: each
+ * setter returns a modified copy, so a filter can be kept as a key while another is built from it.
+ */
+public final class MeetingFilter {
+    private int[] mRooms = new int[0];
+    private int mFromDay = Integer.MIN_VALUE;
+    private int mToDay = Integer.MAX_VALUE;
+    private long mFrom = Long.MIN_VALUE;
+    private long mTo = Long.MAX_VALUE;
+    private int mFromMinuteOfDay = 0;
+    private int mToMinuteOfDay = MeetingTime.MINUTES_PER_DAY;
+    private String mParticipant;
+    private String mSubject;
+
+    public static MeetingFilter any() {
+        return new MeetingFilter();
+    }
+
+    private MeetingFilter copy() {
+        MeetingFilter copy = new MeetingFilter();
+        copy.mRooms = mRooms;
+        copy.mFromDay = mFromDay;
+        copy.mToDay = mToDay;
+        copy.mFrom = mFrom;
+        copy.mTo = mTo;
+        copy.mFromMinuteOfDay = mFromMinuteOfDay;
+        copy.mToMinuteOfDay = mToMinuteOfDay;
+        copy.mParticipant = mParticipant;
+        copy.mSubject = mSubject;
+        return copy;
+    }
+
+    /**
+     * @param rooms rooms to list, none for any room
+     */
+    public MeetingFilter rooms(int... rooms) {
+        MeetingFilter copy = copy();
+        int[] sorted = rooms.clone();
+        Arrays.sort(sorted);
+        copy.mRooms = sorted;
+        return copy;
+    }
+
+    /**
+     * @param fromDay first day (epoch day, inclusive)
+     * @param toDay   last day (epoch day, inclusive)
+     */
+    public MeetingFilter days(int fromDay, int toDay) {
+        MeetingFilter copy = copy();
+        copy.mFromDay = fromDay;
+        copy.mToDay = toDay;
+        return copy;
+    }
+
+    /**
+     * @param from first start (minutes since epoch, inclusive)
+     * @param to   last start (minutes since epoch, exclusive)
+     */
+    public MeetingFilter starts(long from, long to) {
+        MeetingFilter copy = copy();
+        copy.mFrom = from;
+        copy.mTo = to;
+        return copy;
+    }
+
+    /**
+     * @param fromMinuteOfDay first start in the day (inclusive)
+     * @param toMinuteOfDay   last start in the day (exclusive)
+     */
+    public MeetingFilter timeOfDay(int fromMinuteOfDay, int toMinuteOfDay) {
+        MeetingFilter copy = copy();
+        copy.mFromMinuteOfDay = fromMinuteOfDay;
+        copy.mToMinuteOfDay = toMinuteOfDay;
+        return copy;
+    }
+
+    /**
+     * @param participant email of a participant, null for anybody
+     */
+    public MeetingFilter participant(String participant) {
+        MeetingFilter copy = copy();
+        copy.mParticipant = participant == null || participant.trim().isEmpty() ? null : participant.trim();
+        return copy;
+    }
+
+    /**
+     * @param subject text the subject must contain whatever the case, null for any subject
+     */
+    public MeetingFilter subject(String subject) {
+        MeetingFilter copy = copy();
+        copy.mSubject = subject == null || subject.trim().isEmpty() ? null : subject.trim().toLowerCase(Locale.ROOT);
+        return copy;
+    }
+
+    /**
+     * @return the rooms to list sorted, empty for any room, must not be modified
+     */
+    public int[] getRooms() {
+        return mRooms;
+    }
+
+    public int getFromDay() {
+        return mFromDay;
+    }
+
+    public int getToDay() {
+        return mToDay;
+    }
+
+    public boolean hasDays() {
+        return mFromDay != Integer.MIN_VALUE || mToDay != Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return the first start accepted (minutes since epoch, inclusive), days and starts together
+     */
+    public long getFrom() {
+        return Math.max(mFrom, (long) mFromDay * MeetingTime.MINUTES_PER_DAY);
+    }
+
+    /**
+     * @return the last start accepted (minutes since epoch, exclusive), days and starts together
+     */
+    public long getTo() {
+        return Math.min(mTo, ((long) mToDay + 1) * MeetingTime.MINUTES_PER_DAY);
+    }
+
+    public int getFromMinuteOfDay() {
+        return mFromMinuteOfDay;
+    }
+
+    public int getToMinuteOfDay() {
+        return mToMinuteOfDay;
+    }
+
+    public boolean hasTimeOfDay() {
+        return mFromMinuteOfDay > 0 || mToMinuteOfDay < MeetingTime.MINUTES_PER_DAY;
+    }
+
+    public String getParticipant() {
+        return mParticipant;
+    }
+
+    public String getSubject() {
+        return mSubject;
+    }
+
+    public boolean matches(Meeting meeting) {
+        if (mRooms.length > 0 && Arrays.binarySearch(mRooms, meeting.getRoom()) < 0)
+            return false;
+        long start = meeting.getStart();
+        if (start < getFrom() || start >= getTo())
+            return false;
+        int minuteOfDay = MeetingTime.minuteOfDay(start);
+        if (minuteOfDay < mFromMinuteOfDay || minuteOfDay >= mToMinuteOfDay)
+            return false;
+        if (mParticipant != null && !meeting.getParticipants().contains(mParticipant))
+            return false;
+        return mSubject == null || meeting.getSubject().toLowerCase(Locale.ROOT).contains(mSubject);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof MeetingFilter))
+            return false;
+        MeetingFilter other = (MeetingFilter) o;
+        return mFromDay == other.mFromDay && mToDay == other.mToDay && mFrom == other.mFrom && mTo == other.mTo
+                && mFromMinuteOfDay == other.mFromMinuteOfDay && mToMinuteOfDay == other.mToMinuteOfDay
+                && Arrays.equals(mRooms, other.mRooms)
+                && equal(mParticipant, other.mParticipant) && equal(mSubject, other.mSubject);
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = Arrays.hashCode(mRooms);
+        hash = 31 * hash + mFromDay;
+        hash = 31 * hash + mToDay;
+        hash = 31 * hash + (int) (mFrom ^ (mFrom >>> 32));
+        hash = 31 * hash + (int) (mTo ^ (mTo >>> 32));
+        hash = 31 * hash + mFromMinuteOfDay;
+        hash = 31 * hash + mToMinuteOfDay;
+        hash = 31 * hash + (mParticipant != null ? mParticipant.hashCode() : 0);
+        return 31 * hash + (mSubject != null ? mSubject.hashCode() : 0);
+    }
+}
@@ -0,0 +1,207 @@
+package com.openclassroom.mareu.service;
+
+import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.model.MeetingTime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Seeded generator of synthetic meetings for load tests and benchmarks. Meetings are created one at
+ * a time while iterating, so millions of them can be streamed into a service without being held
+ * in memory first; the same seed and settings always give the same meetings.
+ * <p>
+ * Defaults: 1000 meetings over the 365 days from 01/01/2021, 10 rooms equally booked, starts every
+ * 15 minutes from 08h00 to 18h00, 15 minutes to 2 hours, 2 to 8 participants out of 300 people.
+ */
+public class MeetingGenerator implements Iterable<Meeting> {
+    private long mSeed;
+    private long mCount = 1000;
+    private int mFirstDay = MeetingTime.toEpochDay(2021, 1, 1);
+    private int mDayCount = 365;
+    private boolean mWeekdaysOnly;
+    private int[] mRoomWeights = {1, 1, 1, 1, 1, 1, 1, 1, 1, 1};
+    private int mFirstStart = 8 * 60;
+    private int mLastStart = 18 * 60;
+    private int mStartStep = 15;
+    private int[] mDurations = {15, 30, 45, 60, 90, 120};
+    private int[] mDurationWeights = {1, 1, 1, 1, 1, 1};
+    private int mMinParticipants = 2;
+    private int mMaxParticipants = 8;
+    private int mPeopleCount = 300;
+    private double mPopularitySkew;
+
+    public MeetingGenerator(long seed) {
+        mSeed = seed;
+    }
+
+    public MeetingGenerator count(long count) {
+        mCount = count;
+        return this;
+    }
+
+    public MeetingGenerator days(int firstDay, int dayCount) {
+        mFirstDay = firstDay;
+        mDayCount = dayCount;
+        return this;
+    }
+
+    /**
+     * Leaves saturdays and sundays free.
+     */
+    public MeetingGenerator weekdaysOnly(boolean weekdaysOnly) {
+        mWeekdaysOnly = weekdaysOnly;
+        return this;
+    }
+
+    /**
+     * @param weights relative booking frequency of room 1, 2, ...
+     */
+    public MeetingGenerator rooms(int... weights) {
+        mRoomWeights = weights.clone();
+        return this;
+    }
+
+    /**
+     * Starts are drawn uniformly among firstStart, firstStart + step, ... up to lastStart (minutes of day).
+     */
+    public MeetingGenerator startTimes(int firstStart, int lastStart, int step) {
+        mFirstStart = firstStart;
+        mLastStart = lastStart;
+        mStartStep = step;
+        return this;
+    }
+
+    /**
+     * @param weights relative frequency of each duration (minutes)
+     */
+    public MeetingGenerator durations(int[] durations, int[] weights) {
+        if (durations.length != weights.length)
+            throw new IllegalArgumentException("One weight per duration expected");
+        mDurations = durations.clone();
+        mDurationWeights = weights.clone();
+        return this;
+    }
+
+    /**
+     * @param popularitySkew 0 invites everybody equally often, 1 or more makes a few people attend most meetings (Zipf law)
+     */
+    public MeetingGenerator participants(int min, int max, int peopleCount, double popularitySkew) {
+        mMinParticipants = min;
+        mMaxParticipants = max;
+        mPeopleCount = peopleCount;
+        mPopularitySkew = popularitySkew;
+        return this;
+    }
+
+    /**
+     * @return the email of person number index, as used in generated meetings
+     */
+    public static String email(int index) {
+        return "person" + index + "@email.com";
+    }
+
+    public List<Meeting> toList() {
+        List<Meeting> meetings = new ArrayList<>((int) Math.min(mCount, Integer.MAX_VALUE));
+        for (Meeting meeting : this)
+            meetings.add(meeting);
+        return meetings;
+    }
+
+    @Override
+    public Iterator<Meeting> iterator() {
+        return new MeetingIterator();
+    }
+
+    private class MeetingIterator implements Iterator<Meeting> {
+        private final Random mRandom = new Random(mSeed);
+        private final double[] mRoomCumulative = cumulative(mRoomWeights);
+        private final double[] mDurationCumulative = cumulative(mDurationWeights);
+        private final double[] mPeopleCumulative;
+        private final String[] mPeople = new String[mPeopleCount];
+        private final int[] mDays;
+        private long mGenerated;
+
+        MeetingIterator() {
+            double[] popularity = new double[mPeopleCount];
+            for (int i = 0; i < mPeopleCount; i++)
+                popularity[i] = 1 / Math.pow(i + 1, mPopularitySkew);
+            mPeopleCumulative = cumulative(popularity);
+            for (int i = 0; i < mPeopleCount; i++)
+                mPeople[i] = email(i);
+            int[] days = new int[mDayCount];
+            int dayCount = 0;
+            for (int day = mFirstDay; day < mFirstDay + mDayCount; day++) {
+                // 01/01/1970 was a thursday, day 2 (mod 7) is a saturday and day 3 a sunday
+                int dayOfWeek = ((day % 7) + 7) % 7;
+                if (!mWeekdaysOnly || (dayOfWeek != 2 && dayOfWeek != 3))
+                    days[dayCount++] = day;
+            }
+            mDays = Arrays.copyOf(days, dayCount);
+            if (mDays.length == 0 && mCount > 0)
+                throw new IllegalStateException("No day to book");
+        }
+
+        @Override
+        public boolean hasNext() {
+            return mGenerated < mCount;
+        }
+
+        @Override
+        public Meeting next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            mGenerated++;
+            int day = mDays[mRandom.nextInt(mDays.length)];
+            int start = mFirstStart + mRandom.nextInt((mLastStart - mFirstStart) / mStartStep + 1) * mStartStep;
+            int room = 1 + pick(mRoomCumulative);
+            int duration = mDurations[pick(mDurationCumulative)];
+            int participantCount = Math.min(mPeopleCount,
+                    mMinParticipants + mRandom.nextInt(mMaxParticipants - mMinParticipants + 1));
+            List<String> participants = new ArrayList<>(participantCount);
+            while (participants.size() < participantCount) {
+                String person = mPeople[pick(mPeopleCumulative)];
+                if (!participants.contains(person))
+                    participants.add(person);
+            }
+            return new Meeting((long) day * MeetingTime.MINUTES_PER_DAY + start, duration, room,
+                    "Reunion" + mGenerated, participants);
+        }
+
+        private int pick(double[] cumulative) {
+            // First index whose cumulative weight is above the target, so zero weights are never picked
+            double target = mRandom.nextDouble() * cumulative[cumulative.length - 1];
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cumulative[middle] > target)
+                    high = middle;
+                else
+                    low = middle + 1;
+            }
+            return low;
+        }
+    }
+
+    private static double[] cumulative(int[] weights) {
+        double[] values = new double[weights.length];
+        for (int i = 0; i < weights.length; i++)
+            values[i] = weights[i];
+        return cumulative(values);
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] cumulative = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+        return cumulative;
+    }
+}
@@ -1,6 +1,7 @@
 package com.openclassroom.mareu.service;
 
 import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.model.MeetingTime;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -8,33 +9,40 @@ import java.util.List;
 
 public abstract class MeetingListGeneratorDummy {
     final private static List<Meeting> DUMMY_MEETINGS = Arrays.asList(
-            new Meeting("01/02/2021", "08h40", "1", "Reunion1",
+            new Meeting(MeetingTime.of(2021, 2, 1, 8, 40), 45, 1, "Reunion1",
                     Arrays.asList("jean@email.com", "lea@email.com", "nina@email.com")),
-            new Meeting("01/02/2021", "14h00", "2", "Reunion2",
+            new Meeting(MeetingTime.of(2021, 2, 1, 14, 0), 45, 2, "Reunion2",
                     Arrays.asList("bob@email.com", "juan@email.com")),
-            new Meeting("01/02/2021", "15h00", "3", "Reunion3",
+            new Meeting(MeetingTime.of(2021, 2, 1, 15, 0), 45, 3, "Reunion3",
                     Arrays.asList("jean@email.com", "lea@email.com", "nina@email.com", "bob@email.com", "juan@email.com")),
-            new Meeting("01/02/2021", "08h40", "4", "Reunion4",
+            new Meeting(MeetingTime.of(2021, 2, 1, 8, 40), 45, 4, "Reunion4",
                     Arrays.asList("jean@email.com", "lea@email.com", "nina@email.com")),
-            new Meeting("22/07/2021", "14h00", "1", "Reunion5",
+            new Meeting(MeetingTime.of(2021, 7, 22, 14, 0), 45, 1, "Reunion5",
                     Arrays.asList("bob@email.com", "juan@email.com")),
-            new Meeting("23/07/2021", "15h00", "1", "Reunion6",
+            new Meeting(MeetingTime.of(2021, 7, 23, 15, 0), 45, 1, "Reunion6",
                     Arrays.asList("jean@email.com", "lea@email.com", "nina@email.com", "bob@email.com", "juan@email.com")),
-            new Meeting("28/07/2021", "08h40", "4", "Reunion7",
+            new Meeting(MeetingTime.of(2021, 7, 28, 8, 40), 45, 4, "Reunion7",
                     Arrays.asList("jean@email.com", "lea@email.com", "nina@email.com")),
-            new Meeting("28/07/2021", "14h00", "3", "Reunion8",
+            new Meeting(MeetingTime.of(2021, 7, 28, 14, 0), 45, 3, "Reunion8",
                     Arrays.asList("bob@email.com", "juan@email.com")),
-            new Meeting("28/07/2021", "15h00", "5", "Reunion9",
+            new Meeting(MeetingTime.of(2021, 7, 28, 15, 0), 45, 5, "Reunion9",
                     Arrays.asList("jean@email.com", "lea@email.com", "nina@email.com", "bob@email.com", "juan@email.com")),
-            new Meeting("01/08/2021", "08h40", "1", "Reunion10",
+            new Meeting(MeetingTime.of(2021, 8, 1, 8, 40), 45, 1, "Reunion10",
                     Arrays.asList("jean@email.com", "lea@email.com", "nina@email.com")),
-            new Meeting("01/08/2021", "14h00", "1", "Reunion11",
+            new Meeting(MeetingTime.of(2021, 8, 1, 14, 0), 45, 1, "Reunion11",
                     Arrays.asList("bob@email.com", "juan@email.com")),
-            new Meeting("16/08/2021", "15h00", "2", "Reunion12",
+            new Meeting(MeetingTime.of(2021, 8, 16, 15, 0), 45, 2, "Reunion12",
                     Arrays.asList("jean@email.com", "lea@email.com", "nina@email.com", "bob@email.com", "juan@email.com"))
     );
 
+    /**
+     * @return new copies of the dummy meetings, keeping the same ids from one call to the next
+     */
     public static List<Meeting> getNewMeetingList() {
-        return new ArrayList<>(DUMMY_MEETINGS);
+        List<Meeting> meetings = new ArrayList<>(DUMMY_MEETINGS.size());
+        for (Meeting meeting : DUMMY_MEETINGS)
+            meetings.add(new Meeting(meeting.getId(), meeting.getStart(), meeting.getDuration(), meeting.getRoom(),
+                    meeting.getSubject(), meeting.getParticipants()));
+        return meetings;
     }
 }
@@ -0,0 +1,229 @@
+package com.openclassroom.mareu.service;
+
+import com.openclassroom.mareu.callback.IMeetingViewListener;
+import com.openclassroom.mareu.model.Meeting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Meetings matching a filter sorted by start then id, kept up to date by the service that opened it:
+ * each meeting created or removed is inserted or removed at its position and reported to the
+ * listener, the filter is never run again. The changes of a batch are applied in one pass and
+ * reported together as a {@link MeetingChangeSet}.
+ * <p>
+ * A view of all meetings keeps no copy of them: the positions are ranks in the start order of the
+ * service, so that a list paging through all meetings can follow them.
+ */
+public class MeetingView {
+    /**
+     * Start order of all the meetings of a service.
+     */
+    interface Ranking {
+        /**
+         * @return the number of meetings sorted before meeting by start then id
+         */
+        int rank(Meeting meeting);
+
+        int size();
+
+        /**
+         * @return every meeting sorted by start then id
+         */
+        List<Meeting> all();
+    }
+
+    private final Views mViews;
+    private final MeetingFilter mFilter;
+    private final List<Meeting> mMeetings;
+    private final Ranking mRanking;
+    private final IMeetingViewListener mListener;
+
+    private MeetingView(Views views, MeetingFilter filter, List<Meeting> meetings, Ranking ranking, IMeetingViewListener listener) {
+        mViews = views;
+        mFilter = filter;
+        mMeetings = meetings != null ? new ArrayList<>(meetings) : null;
+        mRanking = ranking;
+        mListener = listener;
+    }
+
+    public MeetingFilter getFilter() {
+        return mFilter;
+    }
+
+    /**
+     * @return a copy of the current meetings of the view
+     */
+    public synchronized List<Meeting> getMeetings() {
+        return mRanking != null ? mRanking.all() : new ArrayList<>(mMeetings);
+    }
+
+    public synchronized int size() {
+        return mRanking != null ? mRanking.size() : mMeetings.size();
+    }
+
+    /**
+     * Stops following the service.
+     */
+    public void close() {
+        mViews.close(this);
+    }
+
+    private synchronized void onCreated(Meeting meeting) {
+        if (mRanking != null) {
+            mListener.onMeetingInserted(mRanking.rank(meeting), meeting);
+            return;
+        }
+        if (!mFilter.matches(meeting))
+            return;
+        int position = Collections.binarySearch(mMeetings, meeting, Meeting.BY_START);
+        if (position >= 0)
+            return;
+        position = -position - 1;
+        mMeetings.add(position, meeting);
+        mListener.onMeetingInserted(position, meeting);
+    }
+
+    private synchronized void onRemoved(Meeting meeting) {
+        if (mRanking != null) {
+            mListener.onMeetingRemoved(mRanking.rank(meeting), meeting);
+            return;
+        }
+        int position = Collections.binarySearch(mMeetings, meeting, Meeting.BY_START);
+        if (position < 0)
+            return;
+        Meeting removed = mMeetings.remove(position);
+        mListener.onMeetingRemoved(position, removed);
+    }
+
+    /**
+     * Positions of a batch in a view of all meetings, the service holding the meetings after it: a
+     * created meeting is at its rank, a removed one was at its rank plus the removed meetings
+     * sorted before it, minus the created ones.
+     */
+    private void onChangedRanked(List<Meeting> removed, List<Meeting> created) {
+        if (removed.isEmpty() && created.isEmpty())
+            return;
+        List<Meeting> removedSorted = new ArrayList<>(removed);
+        Collections.sort(removedSorted, Meeting.BY_START);
+        List<Meeting> inserted = new ArrayList<>(created);
+        Collections.sort(inserted, Meeting.BY_START);
+        int[] removedPositions = new int[removedSorted.size()];
+        int createdBefore = 0;
+        for (int i = 0; i < removedSorted.size(); i++) {
+            Meeting meeting = removedSorted.get(i);
+            while (createdBefore < inserted.size() && Meeting.BY_START.compare(inserted.get(createdBefore), meeting) < 0)
+                createdBefore++;
+            removedPositions[i] = mRanking.rank(meeting) - createdBefore + i;
+        }
+        int[] insertedPositions = new int[inserted.size()];
+        for (int i = 0; i < inserted.size(); i++)
+            insertedPositions[i] = mRanking.rank(inserted.get(i));
+        mListener.onMeetingsChanged(new MeetingChangeSet(removedPositions, removedSorted, insertedPositions, inserted));
+    }
+
+    private synchronized void onChanged(List<Meeting> removed, List<Meeting> created) {
+        if (mRanking != null) {
+            onChangedRanked(removed, created);
+            return;
+        }
+        int[] removedPositions = new int[removed.size()];
+        int removedCount = 0;
+        for (Meeting meeting : removed) {
+            int position = Collections.binarySearch(mMeetings, meeting, Meeting.BY_START);
+            if (position >= 0)
+                removedPositions[removedCount++] = position;
+        }
+        removedPositions = Arrays.copyOf(removedPositions, removedCount);
+        Arrays.sort(removedPositions);
+        List<Meeting> removedMeetings = new ArrayList<>(removedCount);
+        for (int position : removedPositions)
+            removedMeetings.add(mMeetings.get(position));
+
+        List<Meeting> inserted = new ArrayList<>();
+        for (Meeting meeting : created) {
+            if (mFilter.matches(meeting))
+                inserted.add(meeting);
+        }
+        if (removedCount == 0 && inserted.isEmpty())
+            return;
+        Collections.sort(inserted, Meeting.BY_START);
+
+        // Merge the kept meetings with the inserted ones, noting where each inserted one lands
+        int[] insertedPositions = new int[inserted.size()];
+        List<Meeting> result = new ArrayList<>(mMeetings.size() - removedCount + inserted.size());
+        int nextRemoved = 0;
+        int nextInserted = 0;
+        for (int i = 0; i <= mMeetings.size(); i++) {
+            Meeting stored = i < mMeetings.size() ? mMeetings.get(i) : null;
+            while (nextInserted < inserted.size()
+                    && (stored == null || Meeting.BY_START.compare(inserted.get(nextInserted), stored) < 0)) {
+                insertedPositions[nextInserted] = result.size();
+                result.add(inserted.get(nextInserted++));
+            }
+            if (stored == null)
+                break;
+            if (nextRemoved < removedCount && removedPositions[nextRemoved] == i)
+                nextRemoved++;
+            else
+                result.add(stored);
+        }
+        mMeetings.clear();
+        mMeetings.addAll(result);
+        mListener.onMeetingsChanged(new MeetingChangeSet(removedPositions, removedMeetings, insertedPositions, inserted));
+    }
+
+    /**
+     * Views opened on a service, to be told about each meeting it creates or removes. Views may be
+     * closed from any thread.
+     */
+    static class Views {
+        private final List<MeetingView> mOpen = new ArrayList<>();
+
+        /**
+         * @param meetings the meetings matching filter when the view is opened, sorted by start then id
+         */
+        synchronized MeetingView open(MeetingFilter filter, List<Meeting> meetings, IMeetingViewListener listener) {
+            MeetingView view = new MeetingView(this, filter, meetings, null, listener);
+            mOpen.add(view);
+            return view;
+        }
+
+        /**
+         * @param ranking the start order of the service, read when a change is reported
+         */
+        synchronized MeetingView openAll(Ranking ranking, IMeetingViewListener listener) {
+            MeetingView view = new MeetingView(this, MeetingFilter.any(), null, ranking, listener);
+            mOpen.add(view);
+            return view;
+        }
+
+        synchronized void close(MeetingView view) {
+            mOpen.remove(view);
+        }
+
+        synchronized void onCreated(Meeting meeting) {
+            for (int i = 0; i < mOpen.size(); i++)
+                mOpen.get(i).onCreated(meeting);
+        }
+
+        /**
+         * @param meeting the stored meeting, its start locates it in the views
+         */
+        synchronized void onRemoved(Meeting meeting) {
+            for (int i = 0; i < mOpen.size(); i++)
+                mOpen.get(i).onRemoved(meeting);
+        }
+
+        /**
+         * @param removed the stored meetings removed by a batch
+         * @param created the meetings it created
+         */
+        synchronized void onChanged(List<Meeting> removed, List<Meeting> created) {
+            for (int i = 0; i < mOpen.size(); i++)
+                mOpen.get(i).onChanged(removed, created);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.openclassroom.mareu.service.index;
+
+/**
+ * Node of an AVL tree, the rebalancing shared by the trees of this package. A subclass holds the
+ * key and the values it augments each node with, recomputed from the children by {@link #augment}
+ * whenever they change.
+ */
+abstract class AvlNode<N extends AvlNode<N>> {
+    N mLeft;
+    N mRight;
+    int mHeight = 1;
+
+    /**
+     * Recomputes the values augmenting this node from its children, which are up to date.
+     */
+    abstract void augment();
+
+    final void update() {
+        mHeight = 1 + Math.max(height(mLeft), height(mRight));
+        augment();
+    }
+
+    static int height(AvlNode<?> node) {
+        return node != null ? node.mHeight : 0;
+    }
+
+    /**
+     * @return the root of the subtree of node once rebalanced, its children being balanced already
+     */
+    static <N extends AvlNode<N>> N balance(N node) {
+        node.update();
+        int balance = height(node.mLeft) - height(node.mRight);
+        if (balance > 1) {
+            if (height(node.mLeft.mLeft) < height(node.mLeft.mRight))
+                node.mLeft = rotateLeft(node.mLeft);
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.mRight.mRight) < height(node.mRight.mLeft))
+                node.mRight = rotateRight(node.mRight);
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    /**
+     * @return the root of the subtree of node without node itself
+     */
+    static <N extends AvlNode<N>> N unlink(N node) {
+        if (node.mLeft == null)
+            return node.mRight;
+        if (node.mRight == null)
+            return node.mLeft;
+        N successor = node.mRight;
+        while (successor.mLeft != null)
+            successor = successor.mLeft;
+        successor.mRight = removeMin(node.mRight);
+        successor.mLeft = node.mLeft;
+        return balance(successor);
+    }
+
+    private static <N extends AvlNode<N>> N removeMin(N node) {
+        if (node.mLeft == null)
+            return node.mRight;
+        node.mLeft = removeMin(node.mLeft);
+        return balance(node);
+    }
+
+    private static <N extends AvlNode<N>> N rotateRight(N node) {
+        N left = node.mLeft;
+        node.mLeft = left.mRight;
+        left.mRight = node;
+        node.update();
+        left.update();
+        return left;
+    }
+
+    private static <N extends AvlNode<N>> N rotateLeft(N node) {
+        N right = node.mRight;
+        node.mRight = right.mLeft;
+        right.mLeft = node;
+        node.update();
+        right.update();
+        return right;
+    }
+}
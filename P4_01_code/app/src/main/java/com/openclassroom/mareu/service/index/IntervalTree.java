@@ -0,0 +1,112 @@
+package com.openclassroom.mareu.service.index;
+
+import com.openclassroom.mareu.model.Meeting;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AVL tree of meetings keyed by start, each node augmented with the latest end of its subtree
+ * so that overlap queries only visit branches that can still overlap: O(log n + k).
+ */
+public class IntervalTree {
+    private Node mRoot;
+
+    private static class Node extends AvlNode<Node> {
+        final long mStart;
+        final List<Meeting> mMeetings = new ArrayList<>(1);
+        long mBucketEnd;
+        long mMaxEnd;
+
+        Node(long start) {
+            mStart = start;
+        }
+
+        /**
+         * Updates the latest end of the subtree, the end of the own bucket being up to date.
+         */
+        @Override
+        void augment() {
+            long maxEnd = mBucketEnd;
+            if (mLeft != null)
+                maxEnd = Math.max(maxEnd, mLeft.mMaxEnd);
+            if (mRight != null)
+                maxEnd = Math.max(maxEnd, mRight.mMaxEnd);
+            mMaxEnd = maxEnd;
+        }
+    }
+
+    public void add(Meeting meeting) {
+        mRoot = insert(mRoot, meeting);
+    }
+
+    public void remove(Meeting meeting) {
+        mRoot = delete(mRoot, meeting);
+    }
+
+    public boolean isEmpty() {
+        return mRoot == null;
+    }
+
+    /**
+     * @return meetings overlapping [start, end)
+     */
+    public List<Meeting> overlapping(long start, long end) {
+        List<Meeting> result = new ArrayList<>();
+        collect(mRoot, start, end, result);
+        return result;
+    }
+
+    private static void collect(Node node, long start, long end, List<Meeting> result) {
+        while (node != null && node.mMaxEnd > start) {
+            collect(node.mLeft, start, end, result);
+            if (node.mStart >= end)
+                return;
+            if (node.mBucketEnd > start) {
+                for (Meeting meeting : node.mMeetings) {
+                    if (meeting.getEnd() > start)
+                        result.add(meeting);
+                }
+            }
+            node = node.mRight;
+        }
+    }
+
+    private static Node insert(Node node, Meeting meeting) {
+        if (node == null) {
+            node = new Node(meeting.getStart());
+            node.mMeetings.add(meeting);
+            node.mBucketEnd = meeting.getEnd();
+            node.update();
+            return node;
+        }
+        if (meeting.getStart() < node.mStart)
+            node.mLeft = insert(node.mLeft, meeting);
+        else if (meeting.getStart() > node.mStart)
+            node.mRight = insert(node.mRight, meeting);
+        else {
+            node.mMeetings.add(meeting);
+            node.mBucketEnd = Math.max(node.mBucketEnd, meeting.getEnd());
+        }
+        return AvlNode.balance(node);
+    }
+
+    private static Node delete(Node node, Meeting meeting) {
+        if (node == null)
+            return null;
+        if (meeting.getStart() < node.mStart)
+            node.mLeft = delete(node.mLeft, meeting);
+        else if (meeting.getStart() > node.mStart)
+            node.mRight = delete(node.mRight, meeting);
+        else {
+            node.mMeetings.remove(meeting);
+            long bucketEnd = Long.MIN_VALUE;
+            for (Meeting other : node.mMeetings)
+                bucketEnd = Math.max(bucketEnd, other.getEnd());
+            node.mBucketEnd = bucketEnd;
+            if (node.mMeetings.isEmpty())
+                return AvlNode.unlink(node);
+        }
+        return AvlNode.balance(node);
+    }
+}
@@ -0,0 +1,214 @@
+package com.openclassroom.mareu.service.index;
+
+import com.openclassroom.mareu.model.Meeting;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Meetings in insertion order with lookups by id.
+ * <p>
+ * Each meeting gets a slot, removed meetings leave an empty slot behind and a Fenwick tree counts
+ * the meetings before any slot, so that the position of a meeting and the meeting at a position
+ * are found in O(log n), without shifting the following meetings on removal. Empty slots are
+ * squeezed out once they outnumber the meetings.
+ */
+public class MeetingSlots {
+    private static final int MIN_COMPACTION = 64;
+
+    private final Map<Integer, Integer> mSlotById = new HashMap<>();
+    private Meeting[] mSlots = new Meeting[16];
+    private int[] mTree = new int[17];
+    private int mSlotCount;
+    private int mSize;
+
+    private final List<Meeting> mList = new SlotList();
+
+    public int size() {
+        return mSize;
+    }
+
+    public Meeting get(int id) {
+        Integer slot = mSlotById.get(id);
+        return slot != null ? mSlots[slot] : null;
+    }
+
+    public boolean contains(Meeting meeting) {
+        return mSlotById.containsKey(meeting.getId());
+    }
+
+    public void add(Meeting meeting) {
+        if (mSlotById.containsKey(meeting.getId()))
+            throw new IllegalArgumentException("Meeting " + meeting.getId() + " already added");
+        if (mSlotCount == mSlots.length) {
+            if (mSlotCount - mSize >= mSize / 2)
+                compact();
+            else
+                grow();
+        }
+        int slot = mSlotCount++;
+        mSlots[slot] = meeting;
+        mSlotById.put(meeting.getId(), slot);
+        update(slot, 1);
+        mSize++;
+    }
+
+    /**
+     * @return the removed stored meeting, which may be another instance than meeting
+     */
+    public Meeting remove(Meeting meeting) {
+        Integer slot = mSlotById.remove(meeting.getId());
+        if (slot == null)
+            return null;
+        Meeting stored = mSlots[slot];
+        mSlots[slot] = null;
+        update(slot, -1);
+        mSize--;
+        if (mSlotCount - mSize > Math.max(MIN_COMPACTION, mSize))
+            compact();
+        return stored;
+    }
+
+    public int indexOf(Meeting meeting) {
+        Integer slot = mSlotById.get(meeting.getId());
+        return slot != null ? countBefore(slot) : -1;
+    }
+
+    public Meeting at(int index) {
+        if (index < 0 || index >= mSize)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+        // Walk down the Fenwick tree to the slot holding the (index + 1)th meeting
+        int position = 0;
+        int remaining = index + 1;
+        for (int step = Integer.highestOneBit(mTree.length - 1); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < mTree.length && mTree[next] < remaining) {
+                position = next;
+                remaining -= mTree[next];
+            }
+        }
+        return mSlots[position];
+    }
+
+    /**
+     * @return a read-only view of the meetings, in insertion order
+     */
+    public List<Meeting> asList() {
+        return mList;
+    }
+
+    public void clear() {
+        Arrays.fill(mSlots, 0, mSlotCount, null);
+        Arrays.fill(mTree, 0);
+        mSlotById.clear();
+        mSlotCount = 0;
+        mSize = 0;
+    }
+
+    private int countBefore(int slot) {
+        int count = 0;
+        for (int i = slot; i > 0; i -= i & -i)
+            count += mTree[i];
+        return count;
+    }
+
+    private void update(int slot, int delta) {
+        for (int i = slot + 1; i < mTree.length; i += i & -i)
+            mTree[i] += delta;
+    }
+
+    private void grow() {
+        mSlots = Arrays.copyOf(mSlots, mSlots.length * 2);
+        rebuildTree();
+    }
+
+    private void compact() {
+        int live = 0;
+        for (int slot = 0; slot < mSlotCount; slot++) {
+            Meeting meeting = mSlots[slot];
+            if (meeting != null) {
+                mSlots[live] = meeting;
+                mSlotById.put(meeting.getId(), live);
+                live++;
+            }
+        }
+        Arrays.fill(mSlots, live, mSlotCount, null);
+        mSlotCount = live;
+        rebuildTree();
+    }
+
+    private void rebuildTree() {
+        if (mTree.length != mSlots.length + 1)
+            mTree = new int[mSlots.length + 1];
+        else
+            Arrays.fill(mTree, 0);
+        // Linear construction: each node pushes its count to its parent
+        for (int i = 1; i < mTree.length; i++) {
+            if (i - 1 < mSlotCount && mSlots[i - 1] != null)
+                mTree[i]++;
+            int parent = i + (i & -i);
+            if (parent < mTree.length)
+                mTree[parent] += mTree[i];
+        }
+    }
+
+    private class SlotList extends AbstractList<Meeting> implements RandomAccess {
+        @Override
+        public Meeting get(int index) {
+            return at(index);
+        }
+
+        @Override
+        public int size() {
+            return mSize;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Meeting && MeetingSlots.this.contains((Meeting) o);
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            return o instanceof Meeting ? MeetingSlots.this.indexOf((Meeting) o) : -1;
+        }
+
+        @Override
+        public int lastIndexOf(Object o) {
+            return indexOf(o);
+        }
+
+        @Override
+        public Iterator<Meeting> iterator() {
+            return new Iterator<Meeting>() {
+                private int mSlot = nextSlot(0);
+
+                private int nextSlot(int from) {
+                    while (from < mSlotCount && mSlots[from] == null)
+                        from++;
+                    return from;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return mSlot < mSlotCount;
+                }
+
+                @Override
+                public Meeting next() {
+                    if (mSlot >= mSlotCount)
+                        throw new NoSuchElementException();
+                    Meeting meeting = mSlots[mSlot];
+                    mSlot = nextSlot(mSlot + 1);
+                    return meeting;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.openclassroom.mareu.service.index;
+
+import com.openclassroom.mareu.model.Meeting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Meetings of each participant sorted by start then id, one set per
+ * {@link com.openclassroom.mareu.model.ParticipantDictionary} id.
+ */
+public class ParticipantIndex {
+    private static final NavigableSet<Meeting> NONE = new TreeSet<>(Meeting.BY_START);
+
+    private final List<NavigableSet<Meeting>> mByParticipant = new ArrayList<>();
+
+    public void add(Meeting meeting) {
+        for (int participant : meeting.getParticipantIds()) {
+            while (mByParticipant.size() <= participant)
+                mByParticipant.add(null);
+            NavigableSet<Meeting> meetings = mByParticipant.get(participant);
+            if (meetings == null) {
+                meetings = new TreeSet<>(Meeting.BY_START);
+                mByParticipant.set(participant, meetings);
+            }
+            meetings.add(meeting);
+        }
+    }
+
+    /**
+     * @param meetings meetings sorted by start then id
+     */
+    public void addAll(List<Meeting> meetings) {
+        List<List<Meeting>> batches = new ArrayList<>();
+        for (Meeting meeting : meetings) {
+            for (int participant : meeting.getParticipantIds()) {
+                while (batches.size() <= participant)
+                    batches.add(null);
+                List<Meeting> batch = batches.get(participant);
+                if (batch == null) {
+                    batch = new ArrayList<>();
+                    batches.set(participant, batch);
+                }
+                // A participant listed twice in a meeting is added once, as add does
+                if (batch.isEmpty() || batch.get(batch.size() - 1) != meeting)
+                    batch.add(meeting);
+            }
+        }
+        while (mByParticipant.size() < batches.size())
+            mByParticipant.add(null);
+        for (int participant = 0; participant < batches.size(); participant++) {
+            List<Meeting> batch = batches.get(participant);
+            if (batch != null)
+                mByParticipant.set(participant, SortedMeetings.addAll(mByParticipant.get(participant), batch));
+        }
+    }
+
+    /**
+     * @param meetings stored meetings
+     */
+    public void removeAll(List<Meeting> meetings) {
+        List<List<Meeting>> batches = new ArrayList<>();
+        for (Meeting meeting : meetings) {
+            for (int participant : meeting.getParticipantIds()) {
+                while (batches.size() <= participant)
+                    batches.add(null);
+                List<Meeting> batch = batches.get(participant);
+                if (batch == null) {
+                    batch = new ArrayList<>();
+                    batches.set(participant, batch);
+                }
+                if (batch.isEmpty() || batch.get(batch.size() - 1) != meeting)
+                    batch.add(meeting);
+            }
+        }
+        for (int participant = 0; participant < batches.size() && participant < mByParticipant.size(); participant++) {
+            List<Meeting> batch = batches.get(participant);
+            NavigableSet<Meeting> stored = mByParticipant.get(participant);
+            if (batch != null && stored != null)
+                mByParticipant.set(participant, SortedMeetings.removeAll(stored, batch));
+        }
+    }
+
+    public void remove(Meeting meeting) {
+        for (int participant : meeting.getParticipantIds()) {
+            NavigableSet<Meeting> meetings = participant < mByParticipant.size() ? mByParticipant.get(participant) : null;
+            if (meetings != null && meetings.remove(meeting) && meetings.isEmpty())
+                mByParticipant.set(participant, null);
+        }
+    }
+
+    /**
+     * @return the meetings of participant, empty if there is none, must not be modified
+     */
+    public NavigableSet<Meeting> get(int participant) {
+        NavigableSet<Meeting> meetings = participant >= 0 && participant < mByParticipant.size()
+                ? mByParticipant.get(participant) : null;
+        return meetings != null ? meetings : NONE;
+    }
+
+    /**
+     * @return meetings of participant starting in [from, to)
+     */
+    public List<Meeting> between(int participant, long from, long to) {
+        List<Meeting> result = new ArrayList<>();
+        NavigableSet<Meeting> meetings = participant >= 0 && participant < mByParticipant.size()
+                ? mByParticipant.get(participant) : null;
+        if (meetings == null || from >= to)
+            return result;
+        for (Meeting meeting : meetings.tailSet(bound(from), true)) {
+            if (meeting.getStart() >= to)
+                break;
+            result.add(meeting);
+        }
+        return result;
+    }
+
+    /**
+     * @return a probe sorted before every stored meeting starting at start
+     */
+    private static Meeting bound(long start) {
+        return new Meeting(Integer.MIN_VALUE, start, 0, 0, "", Collections.<String>emptyList());
+    }
+}
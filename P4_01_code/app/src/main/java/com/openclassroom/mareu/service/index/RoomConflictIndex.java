@@ -0,0 +1,45 @@
+package com.openclassroom.mareu.service.index;
+
+import com.openclassroom.mareu.model.Meeting;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One {@link IntervalTree} per room, used to find bookings overlapping a new meeting.
+ */
+public class RoomConflictIndex {
+    private final Map<Integer, IntervalTree> mRooms = new HashMap<>();
+
+    public void add(Meeting meeting) {
+        IntervalTree tree = mRooms.get(meeting.getRoom());
+        if (tree == null) {
+            tree = new IntervalTree();
+            mRooms.put(meeting.getRoom(), tree);
+        }
+        tree.add(meeting);
+    }
+
+    public void remove(Meeting meeting) {
+        IntervalTree tree = mRooms.get(meeting.getRoom());
+        if (tree != null) {
+            tree.remove(meeting);
+            if (tree.isEmpty())
+                mRooms.remove(meeting.getRoom());
+        }
+    }
+
+    /**
+     * @return meetings of the room overlapping [start, end)
+     */
+    public List<Meeting> overlapping(int room, long start, long end) {
+        IntervalTree tree = mRooms.get(room);
+        return tree != null ? tree.overlapping(start, end) : Collections.<Meeting>emptyList();
+    }
+
+    public void clear() {
+        mRooms.clear();
+    }
+}
@@ -0,0 +1,46 @@
+package com.openclassroom.mareu.service.index;
+
+import com.openclassroom.mareu.model.Meeting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Composite (room, day) index, one bucket per booked room and day.
+ */
+public class RoomDayIndex {
+    private final Map<Long, List<Meeting>> mBuckets = new HashMap<>();
+
+    private static long key(int room, int day) {
+        return (long) room << 32 | (day & 0xFFFFFFFFL);
+    }
+
+    public void add(Meeting meeting) {
+        long key = key(meeting.getRoom(), meeting.getDay());
+        List<Meeting> bucket = mBuckets.get(key);
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            mBuckets.put(key, bucket);
+        }
+        bucket.add(meeting);
+    }
+
+    public void remove(Meeting meeting) {
+        long key = key(meeting.getRoom(), meeting.getDay());
+        List<Meeting> bucket = mBuckets.get(key);
+        if (bucket != null && bucket.remove(meeting) && bucket.isEmpty())
+            mBuckets.remove(key);
+    }
+
+    public List<Meeting> get(int room, int day) {
+        List<Meeting> bucket = mBuckets.get(key(room, day));
+        return bucket != null ? bucket : Collections.<Meeting>emptyList();
+    }
+
+    public void clear() {
+        mBuckets.clear();
+    }
+}
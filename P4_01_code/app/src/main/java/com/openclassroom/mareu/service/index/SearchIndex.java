@@ -0,0 +1,315 @@
+package com.openclassroom.mareu.service.index;
+
+import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.model.ParticipantDictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Word prefix search over subjects and participant emails. Words are kept in sorted maps, so the
+ * words starting with a prefix are one contiguous range, like the subtree of a trie.
+ * <p>
+ * Subject words point to their meetings. Participant words point to participant ids, whose meetings
+ * come from the {@link ParticipantIndex}.
+ */
+public class SearchIndex {
+    private final NavigableMap<String, NavigableSet<Meeting>> mSubjectWords = new TreeMap<>();
+    private final NavigableMap<String, int[]> mParticipantWords = new TreeMap<>();
+    private final BitSet mIndexedParticipants = new BitSet();
+    private final ParticipantIndex mParticipantIndex;
+    private final TimeIndex mTimeIndex;
+    private int mCount;
+
+    public SearchIndex(ParticipantIndex participantIndex, TimeIndex timeIndex) {
+        mParticipantIndex = participantIndex;
+        mTimeIndex = timeIndex;
+    }
+
+    /**
+     * @return the lower case words of text, split on anything but letters and digits
+     */
+    public static String[] words(String text) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0)
+                start = i;
+            else if (!letter && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    /**
+     * @return true if each word of query starts a word of the subject or of a participant of meeting
+     */
+    public static boolean matches(Meeting meeting, String query) {
+        List<String> participants = meeting.getParticipants();
+        for (String word : words(query)) {
+            boolean found = startsWord(meeting.getSubject(), word);
+            for (int i = 0; i < participants.size() && !found; i++)
+                found = startsWord(participants.get(i), word);
+            if (!found)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if a word of text starts with prefix, a lower case word made of letters and digits
+     */
+    private static boolean startsWord(String text, String prefix) {
+        int last = text.length() - prefix.length();
+        for (int i = 0; i <= last; i++) {
+            if ((i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)))
+                    && text.regionMatches(true, i, prefix, 0, prefix.length()))
+                return true;
+        }
+        return false;
+    }
+
+    public void add(Meeting meeting) {
+        for (String word : words(meeting.getSubject())) {
+            NavigableSet<Meeting> meetings = mSubjectWords.get(word);
+            if (meetings == null) {
+                meetings = new TreeSet<>(Meeting.BY_START);
+                mSubjectWords.put(word, meetings);
+            }
+            meetings.add(meeting);
+        }
+        for (int participant : meeting.getParticipantIds())
+            addParticipant(participant);
+        mCount++;
+    }
+
+    /**
+     * @param meetings meetings sorted by start then id
+     */
+    public void addAll(List<Meeting> meetings) {
+        Map<String, List<Meeting>> batches = new HashMap<>();
+        for (Meeting meeting : meetings) {
+            for (String word : words(meeting.getSubject())) {
+                List<Meeting> batch = batches.get(word);
+                if (batch == null) {
+                    batch = new ArrayList<>();
+                    batches.put(word, batch);
+                }
+                // A word repeated in a subject is added once
+                if (batch.isEmpty() || batch.get(batch.size() - 1) != meeting)
+                    batch.add(meeting);
+            }
+            for (int participant : meeting.getParticipantIds())
+                addParticipant(participant);
+        }
+        for (Map.Entry<String, List<Meeting>> entry : batches.entrySet())
+            mSubjectWords.put(entry.getKey(), SortedMeetings.addAll(mSubjectWords.get(entry.getKey()), entry.getValue()));
+        mCount += meetings.size();
+    }
+
+    /**
+     * @param meetings stored meetings
+     */
+    public void removeAll(List<Meeting> meetings) {
+        Map<String, List<Meeting>> batches = new HashMap<>();
+        for (Meeting meeting : meetings) {
+            for (String word : words(meeting.getSubject())) {
+                List<Meeting> batch = batches.get(word);
+                if (batch == null) {
+                    batch = new ArrayList<>();
+                    batches.put(word, batch);
+                }
+                if (batch.isEmpty() || batch.get(batch.size() - 1) != meeting)
+                    batch.add(meeting);
+            }
+        }
+        for (Map.Entry<String, List<Meeting>> entry : batches.entrySet()) {
+            NavigableSet<Meeting> stored = mSubjectWords.get(entry.getKey());
+            if (stored == null)
+                continue;
+            NavigableSet<Meeting> kept = SortedMeetings.removeAll(stored, entry.getValue());
+            if (kept != null)
+                mSubjectWords.put(entry.getKey(), kept);
+            else
+                mSubjectWords.remove(entry.getKey());
+        }
+        mCount -= meetings.size();
+    }
+
+    public void remove(Meeting meeting) {
+        for (String word : words(meeting.getSubject())) {
+            NavigableSet<Meeting> meetings = mSubjectWords.get(word);
+            if (meetings != null && meetings.remove(meeting) && meetings.isEmpty())
+                mSubjectWords.remove(word);
+        }
+        mCount--;
+    }
+
+    /**
+     * Participant words are added with the first meeting of the participant and kept afterwards,
+     * a participant without meetings simply gives no result.
+     */
+    private void addParticipant(int participant) {
+        if (mIndexedParticipants.get(participant))
+            return;
+        mIndexedParticipants.set(participant);
+        for (String word : words(ParticipantDictionary.getInstance().get(participant))) {
+            int[] participants = mParticipantWords.get(word);
+            if (participants == null)
+                participants = new int[]{participant};
+            else if (participants[participants.length - 1] != participant) {
+                participants = Arrays.copyOf(participants, participants.length + 1);
+                participants[participants.length - 1] = participant;
+            }
+            mParticipantWords.put(word, participants);
+        }
+    }
+
+    /**
+     * @return the first limit meetings, sorted by start then id, whose subject or participants have
+     * a word starting with each word of query
+     */
+    public List<Meeting> search(String query, int limit) {
+        String[] words = words(query);
+        List<Meeting> result = new ArrayList<>();
+        if (words.length == 0 || limit <= 0)
+            return result;
+
+        // Merge the meetings of the most selective query word, check the other words on each of them.
+        // A word starting more than maxSources words matches at least as many meetings, so walking
+        // all meetings by time finds limit results in about limit * mCount / maxSources steps: merge
+        // only below sqrt(limit * mCount) sources, where both cost the same.
+        int maxSources = (int) Math.max(64, Math.sqrt((double) limit * mCount));
+        List<NavigableSet<Meeting>> best = null;
+        long bestSize = Long.MAX_VALUE;
+        for (String word : words) {
+            List<NavigableSet<Meeting>> sources = sources(word, maxSources);
+            if (sources == null)
+                continue;
+            long size = 0;
+            for (NavigableSet<Meeting> source : sources)
+                size += source.size();
+            if (size == 0)
+                return result;
+            if (size < bestSize) {
+                best = sources;
+                bestSize = size;
+            }
+        }
+        if (best == null)
+            return scan(words, limit);
+
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>(best.size(),
+                (a, b) -> Meeting.BY_START.compare(a.mHead, b.mHead));
+        for (NavigableSet<Meeting> source : best) {
+            Cursor cursor = new Cursor(source.iterator());
+            if (cursor.advance())
+                cursors.add(cursor);
+        }
+        BitSet[] participants = matchingParticipants(words);
+        Meeting last = null;
+        while (!cursors.isEmpty() && result.size() < limit) {
+            Cursor cursor = cursors.poll();
+            Meeting meeting = cursor.mHead;
+            if (meeting != last && matches(meeting, words, participants))
+                result.add(meeting);
+            last = meeting;
+            if (cursor.advance())
+                cursors.add(cursor);
+        }
+        return result;
+    }
+
+    /**
+     * @return the meeting sets of the subjects and participants having a word starting with prefix,
+     * null if there are more than maxSources
+     */
+    private List<NavigableSet<Meeting>> sources(String prefix, int maxSources) {
+        String end = prefix + Character.MAX_VALUE;
+        // Counted while iterating, the size of a sub map is computed by walking it entirely
+        List<NavigableSet<Meeting>> sources = new ArrayList<>();
+        for (NavigableSet<Meeting> meetings : mSubjectWords.subMap(prefix, true, end, false).values()) {
+            if (sources.size() == maxSources)
+                return null;
+            sources.add(meetings);
+        }
+        for (int[] participants : mParticipantWords.subMap(prefix, true, end, false).values()) {
+            for (int participant : participants) {
+                if (sources.size() == maxSources)
+                    return null;
+                sources.add(mParticipantIndex.get(participant));
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Walks all meetings by time, for queries matching so many words that results are everywhere.
+     */
+    private List<Meeting> scan(String[] words, int limit) {
+        BitSet[] participants = matchingParticipants(words);
+        List<Meeting> result = new ArrayList<>();
+        for (Meeting meeting : mTimeIndex.all()) {
+            if (result.size() == limit)
+                break;
+            if (matches(meeting, words, participants))
+                result.add(meeting);
+        }
+        return result;
+    }
+
+    /**
+     * @return for each word, the ids of the participants having a word starting with it
+     */
+    private BitSet[] matchingParticipants(String[] words) {
+        BitSet[] matching = new BitSet[words.length];
+        for (int i = 0; i < words.length; i++) {
+            matching[i] = new BitSet();
+            for (int[] participants : mParticipantWords.subMap(words[i], true, words[i] + Character.MAX_VALUE, false).values()) {
+                for (int participant : participants)
+                    matching[i].set(participant);
+            }
+        }
+        return matching;
+    }
+
+    private static boolean matches(Meeting meeting, String[] words, BitSet[] matchingParticipants) {
+        int[] participants = meeting.getParticipantIds();
+        for (int w = 0; w < words.length; w++) {
+            boolean found = startsWord(meeting.getSubject(), words[w]);
+            for (int i = 0; i < participants.length && !found; i++)
+                found = matchingParticipants[w].get(participants[i]);
+            if (!found)
+                return false;
+        }
+        return true;
+    }
+
+    private static class Cursor {
+        private final Iterator<Meeting> mIterator;
+        private Meeting mHead;
+
+        Cursor(Iterator<Meeting> iterator) {
+            mIterator = iterator;
+        }
+
+        boolean advance() {
+            mHead = mIterator.hasNext() ? mIterator.next() : null;
+            return mHead != null;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.openclassroom.mareu.service.index;
+
+import com.openclassroom.mareu.model.Meeting;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Adds or removes batches of meetings to or from sets sorted by {@link Meeting#BY_START}.
+ * A batch large enough is merged with the set into a new set built in linear time, instead of
+ * inserting or deleting each meeting from the root down.
+ */
+final class SortedMeetings {
+    private SortedMeetings() {
+    }
+
+    /**
+     * @param set   the set to add to, null if there is none yet
+     * @param batch meetings sorted by start then id
+     * @return set with batch added, a new set if it was cheaper to build
+     */
+    static NavigableSet<Meeting> addAll(NavigableSet<Meeting> set, List<Meeting> batch) {
+        if (set != null && batch.size() * 16L < set.size()) {
+            set.addAll(batch);
+            return set;
+        }
+        // Meetings already in the set or repeated in the batch are kept once, as a set does
+        List<Meeting> merged = new ArrayList<>((set != null ? set.size() : 0) + batch.size());
+        Iterator<Meeting> stored = set != null ? set.iterator() : Collections.<Meeting>emptyIterator();
+        Meeting next = stored.hasNext() ? stored.next() : null;
+        for (Meeting meeting : batch) {
+            while (next != null && Meeting.BY_START.compare(next, meeting) < 0) {
+                merged.add(next);
+                next = stored.hasNext() ? stored.next() : null;
+            }
+            if (next != null && Meeting.BY_START.compare(next, meeting) == 0)
+                continue;
+            if (merged.isEmpty() || Meeting.BY_START.compare(merged.get(merged.size() - 1), meeting) < 0)
+                merged.add(meeting);
+        }
+        while (next != null) {
+            merged.add(next);
+            next = stored.hasNext() ? stored.next() : null;
+        }
+        // A tree set copies a sorted set with its comparator without comparing anything
+        return new TreeSet<>(new SortedList(merged));
+    }
+
+    /**
+     * @param set   the set to remove from
+     * @param batch stored meetings of set
+     * @return set without batch, a new set if it was cheaper to build, null if nothing is left
+     */
+    static NavigableSet<Meeting> removeAll(NavigableSet<Meeting> set, List<Meeting> batch) {
+        if (batch.size() * 16L < set.size()) {
+            for (Meeting meeting : batch)
+                set.remove(meeting);
+            return set.isEmpty() ? null : set;
+        }
+        Set<Integer> removed = new HashSet<>();
+        for (Meeting meeting : batch)
+            removed.add(meeting.getId());
+        List<Meeting> kept = new ArrayList<>(Math.max(0, set.size() - batch.size()));
+        for (Meeting meeting : set) {
+            if (!removed.contains(meeting.getId()))
+                kept.add(meeting);
+        }
+        return kept.isEmpty() ? null : new TreeSet<>(new SortedList(kept));
+    }
+
+    /**
+     * Read-only sorted set over a list of distinct meetings sorted by start then id.
+     */
+    private static class SortedList extends AbstractSet<Meeting> implements SortedSet<Meeting> {
+        private final List<Meeting> mMeetings;
+
+        SortedList(List<Meeting> meetings) {
+            mMeetings = meetings;
+        }
+
+        @Override
+        public Comparator<? super Meeting> comparator() {
+            return Meeting.BY_START;
+        }
+
+        @Override
+        public Iterator<Meeting> iterator() {
+            return mMeetings.iterator();
+        }
+
+        @Override
+        public int size() {
+            return mMeetings.size();
+        }
+
+        @Override
+        public Meeting first() {
+            return mMeetings.get(0);
+        }
+
+        @Override
+        public Meeting last() {
+            return mMeetings.get(mMeetings.size() - 1);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Meeting && Collections.binarySearch(mMeetings, (Meeting) o, Meeting.BY_START) >= 0;
+        }
+
+        @Override
+        public SortedSet<Meeting> subSet(Meeting fromElement, Meeting toElement) {
+            if (Meeting.BY_START.compare(fromElement, toElement) > 0)
+                throw new IllegalArgumentException("fromElement > toElement");
+            return new SortedList(mMeetings.subList(positionOf(fromElement), positionOf(toElement)));
+        }
+
+        @Override
+        public SortedSet<Meeting> headSet(Meeting toElement) {
+            return new SortedList(mMeetings.subList(0, positionOf(toElement)));
+        }
+
+        @Override
+        public SortedSet<Meeting> tailSet(Meeting fromElement) {
+            return new SortedList(mMeetings.subList(positionOf(fromElement), mMeetings.size()));
+        }
+
+        /**
+         * @return the number of meetings sorted before meeting
+         */
+        private int positionOf(Meeting meeting) {
+            int position = Collections.binarySearch(mMeetings, meeting, Meeting.BY_START);
+            return position >= 0 ? position : -position - 1;
+        }
+    }
+}
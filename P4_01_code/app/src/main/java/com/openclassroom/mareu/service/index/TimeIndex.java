@@ -0,0 +1,298 @@
+package com.openclassroom.mareu.service.index;
+
+import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.model.MeetingTime;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * AVL tree of meetings sorted by start then id, each node augmented with the size of its subtree
+ * so that the position of a key and the meetings at a position are found in O(log n). Serves
+ * time ranges and pages of the meeting list sorted by time, from a key or from a position.
+ */
+public class TimeIndex {
+    private Node mRoot;
+
+    private static class Node extends AvlNode<Node> {
+        final Meeting mMeeting;
+        int mSize = 1;
+
+        Node(Meeting meeting) {
+            mMeeting = meeting;
+        }
+
+        @Override
+        void augment() {
+            mSize = 1 + size(mLeft) + size(mRight);
+        }
+    }
+
+    public int size() {
+        return size(mRoot);
+    }
+
+    public void add(Meeting meeting) {
+        mRoot = insert(mRoot, meeting);
+    }
+
+    /**
+     * Adds a batch of meetings, rebuilding the tree from the merged sorted meetings in O(n) when the
+     * batch is larger than the tree rather than inserting them one by one.
+     */
+    public void addAll(List<Meeting> meetings) {
+        if (meetings.size() <= size()) {
+            for (Meeting meeting : meetings)
+                add(meeting);
+            return;
+        }
+        List<Meeting> batch = new ArrayList<>(meetings);
+        Collections.sort(batch, Meeting.BY_START);
+        List<Meeting> stored = fromPosition(0, size());
+        Meeting[] merged = new Meeting[stored.size() + batch.size()];
+        int s = 0;
+        int b = 0;
+        for (int i = 0; i < merged.length; i++) {
+            if (b == batch.size() || s < stored.size() && Meeting.BY_START.compare(stored.get(s), batch.get(b)) < 0)
+                merged[i] = stored.get(s++);
+            else
+                merged[i] = batch.get(b++);
+        }
+        mRoot = build(merged, 0, merged.length);
+    }
+
+    /**
+     * @return a balanced tree of the sorted meetings [from, to)
+     */
+    private static Node build(Meeting[] meetings, int from, int to) {
+        if (from >= to)
+            return null;
+        int middle = (from + to) >>> 1;
+        Node node = new Node(meetings[middle]);
+        node.mLeft = build(meetings, from, middle);
+        node.mRight = build(meetings, middle + 1, to);
+        node.update();
+        return node;
+    }
+
+    public void remove(Meeting meeting) {
+        mRoot = delete(mRoot, meeting.getStart(), meeting.getId());
+    }
+
+    /**
+     * Removes a batch of stored meetings, rebuilding the tree from the meetings kept in O(n) when
+     * the batch is more than a sixteenth of the tree rather than deleting them one by one.
+     */
+    public void removeAll(List<Meeting> meetings) {
+        if (meetings.size() * 16L <= size()) {
+            for (Meeting meeting : meetings)
+                remove(meeting);
+            return;
+        }
+        Set<Integer> removed = new HashSet<>();
+        for (Meeting meeting : meetings)
+            removed.add(meeting.getId());
+        List<Meeting> stored = fromPosition(0, size());
+        List<Meeting> kept = new ArrayList<>(stored.size());
+        for (Meeting meeting : stored) {
+            if (!removed.contains(meeting.getId()))
+                kept.add(meeting);
+        }
+        mRoot = build(kept.toArray(new Meeting[0]), 0, kept.size());
+    }
+
+    /**
+     * @return the first count meetings sorted after the key (start, id)
+     */
+    public List<Meeting> after(long start, int id, int count) {
+        return fromPosition(countUpTo(start, id), count);
+    }
+
+    /**
+     * @return the last count meetings sorted before the key (start, id), in ascending order
+     */
+    public List<Meeting> before(long start, int id, int count) {
+        int end = countUpTo(start, id);
+        if (end > 0 && compare(select(end - 1).mMeeting, start, id) == 0)
+            end--;
+        int from = Math.max(0, end - count);
+        return fromPosition(from, end - from);
+    }
+
+    /**
+     * @return the number of meetings sorted before meeting, its position if it is stored
+     */
+    public int rank(Meeting meeting) {
+        int count = 0;
+        Node node = mRoot;
+        while (node != null) {
+            if (Meeting.BY_START.compare(node.mMeeting, meeting) < 0) {
+                count += size(node.mLeft) + 1;
+                node = node.mRight;
+            } else
+                node = node.mLeft;
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of meetings starting before start, the position of the first one starting at or after it
+     */
+    public int positionOf(long start) {
+        return countUpTo(start, Integer.MIN_VALUE);
+    }
+
+    /**
+     * @return the meetings at positions [position, position + count)
+     */
+    public List<Meeting> fromPosition(int position, int count) {
+        List<Meeting> result = new ArrayList<>(Math.max(0, Math.min(count, size() - position)));
+        collect(mRoot, position, count, result);
+        return result;
+    }
+
+    /**
+     * @return meetings from day fromDay to day toDay (inclusive) starting in [fromMinuteOfDay, toMinuteOfDay) of their day
+     */
+    public List<Meeting> inTimeWindow(int fromDay, int toDay, int fromMinuteOfDay, int toMinuteOfDay) {
+        List<Meeting> result = new ArrayList<>();
+        if (mRoot == null || fromMinuteOfDay >= toMinuteOfDay)
+            return result;
+        // Skip the empty days before the first and after the last meeting
+        int firstDay = Math.max(fromDay, select(0).mMeeting.getDay());
+        int lastDay = Math.min(toDay, select(size() - 1).mMeeting.getDay());
+        for (int day = firstDay; day <= lastDay; day++) {
+            long dayStart = (long) day * MeetingTime.MINUTES_PER_DAY;
+            int from = positionOf(dayStart + fromMinuteOfDay);
+            collect(mRoot, from, positionOf(dayStart + toMinuteOfDay) - from, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return every meeting sorted by start then id, read lazily
+     */
+    public Iterable<Meeting> all() {
+        return () -> new Iterator<Meeting>() {
+            // Nodes whose meeting and right subtree are still to read, the next one on top
+            private final Deque<Node> mPath = new ArrayDeque<>();
+
+            {
+                pushLeft(mRoot);
+            }
+
+            private void pushLeft(Node node) {
+                for (; node != null; node = node.mLeft)
+                    mPath.push(node);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !mPath.isEmpty();
+            }
+
+            @Override
+            public Meeting next() {
+                if (mPath.isEmpty())
+                    throw new NoSuchElementException();
+                Node node = mPath.pop();
+                pushLeft(node.mRight);
+                return node.mMeeting;
+            }
+        };
+    }
+
+    /**
+     * @return the number of meetings sorted before or equal to the key (start, id)
+     */
+    private int countUpTo(long start, int id) {
+        int count = 0;
+        Node node = mRoot;
+        while (node != null) {
+            if (compare(node.mMeeting, start, id) <= 0) {
+                count += size(node.mLeft) + 1;
+                node = node.mRight;
+            } else
+                node = node.mLeft;
+        }
+        return count;
+    }
+
+    private Node select(int position) {
+        Node node = mRoot;
+        while (node != null) {
+            int left = size(node.mLeft);
+            if (position < left)
+                node = node.mLeft;
+            else if (position == left)
+                return node;
+            else {
+                position -= left + 1;
+                node = node.mRight;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds the meetings at positions [skip, skip + count) of the subtree of node to result.
+     */
+    private static void collect(Node node, int skip, int count, List<Meeting> result) {
+        while (node != null && count > 0) {
+            int left = size(node.mLeft);
+            if (skip < left) {
+                int before = result.size();
+                collect(node.mLeft, skip, count, result);
+                count -= result.size() - before;
+                skip = 0;
+            } else
+                skip -= left;
+            if (count == 0)
+                return;
+            if (skip == 0) {
+                result.add(node.mMeeting);
+                count--;
+            } else
+                skip--;
+            node = node.mRight;
+        }
+    }
+
+    private static int compare(Meeting meeting, long start, int id) {
+        return meeting.getStart() != start ? Long.compare(meeting.getStart(), start) : Integer.compare(meeting.getId(), id);
+    }
+
+    private static Node insert(Node node, Meeting meeting) {
+        if (node == null)
+            return new Node(meeting);
+        if (compare(meeting, node.mMeeting.getStart(), node.mMeeting.getId()) < 0)
+            node.mLeft = insert(node.mLeft, meeting);
+        else
+            node.mRight = insert(node.mRight, meeting);
+        return AvlNode.balance(node);
+    }
+
+    private static Node delete(Node node, long start, int id) {
+        if (node == null)
+            return null;
+        int comparison = compare(node.mMeeting, start, id);
+        if (comparison > 0)
+            node.mLeft = delete(node.mLeft, start, id);
+        else if (comparison < 0)
+            node.mRight = delete(node.mRight, start, id);
+        else
+            return AvlNode.unlink(node);
+        return AvlNode.balance(node);
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.mSize : 0;
+    }
+}
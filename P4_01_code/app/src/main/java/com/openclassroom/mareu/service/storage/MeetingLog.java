@@ -0,0 +1,213 @@
+package com.openclassroom.mareu.service.storage;
+
+import com.openclassroom.mareu.model.Meeting;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of meeting creations and removals.
+ * <p>
+ * Each record is framed as [length][operation + meeting][crc32] and written with a single
+ * write call, so an operation survives the death of the process as soon as the call returns,
+ * and a power loss once {@link #sync} returns. A torn record at the end of the file (crash
+ * during the write) is dropped on replay.
+ * The file starts with the generation of the snapshot it applies to, a log left over from an
+ * older generation (crash between a compaction and the truncation of the log) is ignored.
+ */
+public class MeetingLog implements Closeable {
+    public interface Replay {
+        void onCreate(Meeting meeting);
+
+        void onRemove(Meeting meeting);
+    }
+
+    private static final byte OP_CREATE = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final int HEADER_LENGTH = 8;
+
+    private final File mFile;
+    private final ByteArrayOutputStream mBuffer = new ByteArrayOutputStream(256);
+    private final DataOutputStream mBufferOut = new DataOutputStream(mBuffer);
+    private final CRC32 mCrc = new CRC32();
+    private RandomAccessFile mOutput;
+    private int mRecordCount;
+
+    public MeetingLog(File file) {
+        mFile = file;
+    }
+
+    /**
+     * Replays every complete record written for the given snapshot generation, then opens the
+     * log for appending after the last one.
+     */
+    public void open(long generation, Replay replay) {
+        long validLength = 0;
+        if (mFile.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(mFile)))) {
+                if (in.readLong() == generation)
+                    validLength = replay(in, mFile.length(), replay);
+            } catch (EOFException e) {
+                validLength = 0;
+            } catch (IOException e) {
+                throw new MeetingStorageException("Cannot read " + mFile, e);
+            }
+        }
+        try {
+            mOutput = new RandomAccessFile(mFile, "rw");
+            if (validLength == 0)
+                reset(generation);
+            else {
+                mOutput.setLength(validLength);
+                mOutput.seek(validLength);
+            }
+        } catch (IOException e) {
+            throw new MeetingStorageException("Cannot open " + mFile, e);
+        }
+    }
+
+    private long replay(DataInputStream in, long fileLength, Replay replay) throws IOException {
+        long validLength = HEADER_LENGTH;
+        byte[] record = new byte[256];
+        while (true) {
+            int length;
+            try {
+                length = in.readInt();
+                // A length running past the end of the file was torn or corrupted like a bad crc
+                if (length <= 0 || length > fileLength - validLength - 8)
+                    break;
+                if (record.length < length)
+                    record = new byte[Math.max(length, record.length * 2)];
+                in.readFully(record, 0, length);
+                mCrc.reset();
+                mCrc.update(record, 0, length);
+                if ((int) mCrc.getValue() != in.readInt())
+                    break;
+            } catch (EOFException e) {
+                break;
+            }
+            DataInputStream recordIn = new DataInputStream(new ByteArrayInputStream(record, 0, length));
+            byte operation = recordIn.readByte();
+            Meeting meeting = MeetingRecords.read(recordIn);
+            if (operation == OP_CREATE)
+                replay.onCreate(meeting);
+            else if (operation == OP_REMOVE)
+                replay.onRemove(meeting);
+            validLength += 8 + length;
+            mRecordCount++;
+        }
+        return validLength;
+    }
+
+    public void appendCreate(Meeting meeting) {
+        append(OP_CREATE, meeting);
+    }
+
+    public void appendRemove(Meeting meeting) {
+        append(OP_REMOVE, meeting);
+    }
+
+    /**
+     * Appends the removal of every meeting of removed then the creation of every meeting of created
+     * with a single write call. A crash during the write keeps the changes of the records written
+     * entirely.
+     */
+    public void appendBatch(List<Meeting> removed, List<Meeting> created) {
+        try {
+            ByteArrayOutputStream batch = new ByteArrayOutputStream((removed.size() + created.size()) * 64);
+            for (Meeting meeting : removed)
+                batch.write(record(OP_REMOVE, meeting));
+            for (Meeting meeting : created)
+                batch.write(record(OP_CREATE, meeting));
+            mOutput.write(batch.toByteArray());
+            mRecordCount += removed.size() + created.size();
+        } catch (IOException e) {
+            throw new MeetingStorageException("Cannot append to " + mFile, e);
+        }
+    }
+
+    private void append(byte operation, Meeting meeting) {
+        try {
+            mOutput.write(record(operation, meeting));
+            mRecordCount++;
+        } catch (IOException e) {
+            throw new MeetingStorageException("Cannot append to " + mFile, e);
+        }
+    }
+
+    private byte[] record(byte operation, Meeting meeting) throws IOException {
+        mBuffer.reset();
+        mBufferOut.writeInt(0);
+        mBufferOut.writeByte(operation);
+        MeetingRecords.write(mBufferOut, meeting);
+        mBufferOut.writeInt(0);
+        byte[] record = mBuffer.toByteArray();
+        int length = record.length - 8;
+        mCrc.reset();
+        mCrc.update(record, 4, length);
+        putInt(record, 0, length);
+        putInt(record, record.length - 4, (int) mCrc.getValue());
+        return record;
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Flushes the appended records to the storage device, protecting them against power loss too.
+     */
+    public void sync() {
+        try {
+            mOutput.getFD().sync();
+        } catch (IOException e) {
+            throw new MeetingStorageException("Cannot sync " + mFile, e);
+        }
+    }
+
+    /**
+     * Empties the log, once its content has been saved in the snapshot of the given generation.
+     */
+    public void truncate(long generation) {
+        try {
+            reset(generation);
+        } catch (IOException e) {
+            throw new MeetingStorageException("Cannot truncate " + mFile, e);
+        }
+    }
+
+    private void reset(long generation) throws IOException {
+        mOutput.setLength(0);
+        mOutput.seek(0);
+        mOutput.writeLong(generation);
+        mRecordCount = 0;
+    }
+
+    public int getRecordCount() {
+        return mRecordCount;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (mOutput != null)
+                mOutput.close();
+        } catch (IOException e) {
+            throw new MeetingStorageException("Cannot close " + mFile, e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.openclassroom.mareu.service.storage;
+
+import com.openclassroom.mareu.model.Meeting;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary form of a meeting shared by the append log and the snapshot.
+ */
+final class MeetingRecords {
+    private MeetingRecords() {
+    }
+
+    static void write(DataOutput out, Meeting meeting) throws IOException {
+        out.writeInt(meeting.getId());
+        out.writeLong(meeting.getStart());
+        out.writeInt(meeting.getDuration());
+        out.writeShort(meeting.getRoom());
+        out.writeUTF(meeting.getSubject());
+        List<String> participants = meeting.getParticipants();
+        out.writeShort(participants.size());
+        for (String participant : participants)
+            out.writeUTF(participant);
+    }
+
+    static Meeting read(DataInput in) throws IOException {
+        int id = in.readInt();
+        long start = in.readLong();
+        int duration = in.readInt();
+        int room = in.readUnsignedShort();
+        String subject = in.readUTF();
+        int count = in.readUnsignedShort();
+        List<String> participants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            participants.add(in.readUTF());
+        return new Meeting(id, start, duration, room, subject, participants);
+    }
+}
@@ -0,0 +1,332 @@
+package com.openclassroom.mareu.service.storage;
+
+import com.openclassroom.mareu.model.Meeting;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Read-optimized copy of the store, opened through a {@link java.nio.MappedByteBuffer} and decoded
+ * one meeting at a time, so opening it costs the same whatever its size.
+ * <p>
+ * Layout: a header, one fixed-width record per meeting, the participant references of every
+ * meeting, then a table holding each distinct subject and participant once.
+ * <pre>
+ * header     magic:int version:int generation:long count:int records:int participants:int strings:int
+ * record     start:long duration:int room:u16 participantCount:u16 subject:int firstParticipant:int id:int
+ * reference  string:int
+ * string     length:u16 utf8 bytes
+ * </pre>
+ * Records are sorted by start then id, so that keyset paging reads a range of them found by
+ * binary search. It is written to a temporary file then renamed so that a crash never leaves a
+ * half written snapshot behind. Each compaction writes the next generation.
+ */
+public class MeetingSnapshot {
+    private static final int MAGIC = 0x4D524555; // "MREU"
+    private static final int VERSION = 4;
+    private static final int HEADER_LENGTH = 32;
+    private static final int RECORD_LENGTH = 28;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final ByteBuffer mBuffer;
+    private final long mGeneration;
+    private final int mCount;
+    private final int mRecords;
+    private final int mParticipants;
+    private final int mStrings;
+
+    private MeetingSnapshot(ByteBuffer buffer) {
+        mBuffer = buffer;
+        mGeneration = buffer.getLong(8);
+        mCount = buffer.getInt(16);
+        mRecords = buffer.getInt(20);
+        mParticipants = buffer.getInt(24);
+        mStrings = buffer.getInt(28);
+    }
+
+    public static MeetingSnapshot open(File file) {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r");
+             FileChannel channel = input.getChannel()) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER_LENGTH || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+                throw new MeetingStorageException("Unknown snapshot format " + file, null);
+            return new MeetingSnapshot(buffer);
+        } catch (IOException e) {
+            throw new MeetingStorageException("Cannot read " + file, e);
+        }
+    }
+
+    public long getGeneration() {
+        return mGeneration;
+    }
+
+    public int size() {
+        return mCount;
+    }
+
+    /**
+     * @return the highest id of the records, read without decoding them, 0 if there is none
+     */
+    public int getMaxId() {
+        int maxId = 0;
+        for (int i = 0; i < mCount; i++)
+            maxId = Math.max(maxId, getId(i));
+        return maxId;
+    }
+
+    /**
+     * @return the number of records sorted before the key (start, id)
+     */
+    public int countBefore(long start, int id) {
+        int low = 0;
+        int high = mCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(middle, start, id) < 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Compares the record at index with the key (start, id) without decoding the meeting.
+     */
+    public int compare(int index, long start, int id) {
+        long indexStart = getStart(index);
+        return indexStart != start ? Long.compare(indexStart, start) : Integer.compare(getId(index), id);
+    }
+
+    public long getStart(int index) {
+        return mBuffer.getLong(record(index));
+    }
+
+    public int getDuration(int index) {
+        return mBuffer.getInt(record(index) + 8);
+    }
+
+    public int getRoom(int index) {
+        return mBuffer.getShort(record(index) + 12) & 0xFFFF;
+    }
+
+    public int getId(int index) {
+        return mBuffer.getInt(record(index) + 24);
+    }
+
+    public String getSubject(int index) {
+        return readString(mBuffer.getInt(record(index) + 16));
+    }
+
+    /**
+     * Decodes the meeting at index, its participants are added to the {@link com.openclassroom.mareu.model.ParticipantDictionary}.
+     */
+    public Meeting get(int index) {
+        int record = record(index);
+        int participantCount = mBuffer.getShort(record + 14) & 0xFFFF;
+        int firstParticipant = mBuffer.getInt(record + 20);
+        return new Meeting(mBuffer.getInt(record + 24), mBuffer.getLong(record), mBuffer.getInt(record + 8), mBuffer.getShort(record + 12) & 0xFFFF,
+                readString(mBuffer.getInt(record + 16)), new ParticipantList(firstParticipant, participantCount));
+    }
+
+    /**
+     * @return a view decoding a new {@link Meeting} on each call to get
+     */
+    public List<Meeting> asList() {
+        return new MeetingList();
+    }
+
+    private int record(int index) {
+        if (index < 0 || index >= mCount)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mCount);
+        return mRecords + index * RECORD_LENGTH;
+    }
+
+    private String readString(int offset) {
+        int position = mStrings + offset;
+        byte[] bytes = new byte[mBuffer.getShort(position) & 0xFFFF];
+        ByteBuffer source = mBuffer.duplicate();
+        source.position(position + 2);
+        source.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private class MeetingList extends AbstractList<Meeting> implements RandomAccess {
+        @Override
+        public Meeting get(int index) {
+            return MeetingSnapshot.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return mCount;
+        }
+    }
+
+    private class ParticipantList extends AbstractList<String> implements RandomAccess {
+        private final int mFirst;
+        private final int mCount;
+
+        ParticipantList(int first, int count) {
+            mFirst = first;
+            mCount = count;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= mCount)
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mCount);
+            return readString(mBuffer.getInt(mParticipants + (mFirst + index) * 4));
+        }
+
+        @Override
+        public int size() {
+            return mCount;
+        }
+    }
+
+    /**
+     * @param meetings meetings sorted by start then id
+     * @throws IllegalArgumentException if meetings are not sorted
+     */
+    public static void write(File file, long generation, Collection<Meeting> meetings) {
+        // The string table is built first, records and references only hold offsets into it
+        Map<String, Integer> stringOffsets = new HashMap<>();
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        int participantCount = 0;
+        Meeting previous = null;
+        for (Meeting meeting : meetings) {
+            if (previous != null && (previous.getStart() > meeting.getStart()
+                    || previous.getStart() == meeting.getStart() && previous.getId() >= meeting.getId()))
+                throw new IllegalArgumentException("Meetings not sorted by start then id at " + meeting.getId());
+            previous = meeting;
+            intern(meeting.getSubject(), stringOffsets, strings);
+            for (String participant : meeting.getParticipants())
+                intern(participant, stringOffsets, strings);
+            participantCount += meeting.getParticipants().size();
+        }
+        int records = HEADER_LENGTH;
+        int participants = records + meetings.size() * RECORD_LENGTH;
+        int stringTable = participants + participantCount * 4;
+
+        writeFile(file, out -> {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            out.writeInt(meetings.size());
+            out.writeInt(records);
+            out.writeInt(participants);
+            out.writeInt(stringTable);
+            int firstParticipant = 0;
+            for (Meeting meeting : meetings) {
+                out.writeLong(meeting.getStart());
+                out.writeInt(meeting.getDuration());
+                out.writeShort(meeting.getRoom());
+                out.writeShort(meeting.getParticipants().size());
+                out.writeInt(stringOffsets.get(meeting.getSubject()));
+                out.writeInt(firstParticipant);
+                out.writeInt(meeting.getId());
+                firstParticipant += meeting.getParticipants().size();
+            }
+            for (Meeting meeting : meetings) {
+                for (String participant : meeting.getParticipants())
+                    out.writeInt(stringOffsets.get(participant));
+            }
+            strings.writeTo(out);
+        });
+    }
+
+    /**
+     * Writes a copy of this snapshot without the meeting at index. The other records, their
+     * participant references and the string table are copied as they are, no meeting is decoded;
+     * the strings only the removed meeting used stay in the table.
+     */
+    public void writeWithout(int index, File file, long generation) {
+        int removed = record(index);
+        int removedCount = mBuffer.getShort(removed + 14) & 0xFFFF;
+        int removedFirst = mBuffer.getInt(removed + 20);
+        int records = HEADER_LENGTH;
+        int participants = records + (mCount - 1) * RECORD_LENGTH;
+        int stringTable = participants + (mStrings - mParticipants) - removedCount * 4;
+
+        writeFile(file, out -> {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            out.writeInt(mCount - 1);
+            out.writeInt(records);
+            out.writeInt(participants);
+            out.writeInt(stringTable);
+            byte[] chunk = new byte[8192];
+            for (int i = 0; i < mCount; i++) {
+                if (i == index)
+                    continue;
+                // References are in record order, those of the records after the removed one move back
+                int record = record(i);
+                int firstParticipant = mBuffer.getInt(record + 20);
+                copy(out, record, 20, chunk);
+                out.writeInt(firstParticipant > removedFirst ? firstParticipant - removedCount : firstParticipant);
+                copy(out, record + 24, 4, chunk);
+            }
+            copy(out, mParticipants, removedFirst * 4, chunk);
+            int kept = mParticipants + (removedFirst + removedCount) * 4;
+            copy(out, kept, mStrings - kept, chunk);
+            copy(out, mStrings, mBuffer.limit() - mStrings, chunk);
+        });
+    }
+
+    private void copy(DataOutputStream out, int position, int length, byte[] chunk) throws IOException {
+        ByteBuffer source = mBuffer.duplicate();
+        source.position(position);
+        while (length > 0) {
+            int read = Math.min(length, chunk.length);
+            source.get(chunk, 0, read);
+            out.write(chunk, 0, read);
+            length -= read;
+        }
+    }
+
+    private interface Content {
+        void writeTo(DataOutputStream out) throws IOException;
+    }
+
+    private static void writeFile(File file, Content content) {
+        File temporary = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            content.writeTo(out);
+            out.flush();
+            fileOut.getFD().sync();
+        } catch (IOException e) {
+            throw new MeetingStorageException("Cannot write " + temporary, e);
+        }
+        if (!temporary.renameTo(file))
+            throw new MeetingStorageException("Cannot rename " + temporary + " to " + file, null);
+    }
+
+    private static void intern(String string, Map<String, Integer> offsets, ByteArrayOutputStream strings) {
+        if (offsets.containsKey(string))
+            return;
+        byte[] bytes = string.getBytes(UTF_8);
+        if (bytes.length > 0xFFFF)
+            throw new IllegalArgumentException("String too long for a snapshot: " + bytes.length + " bytes");
+        offsets.put(string, strings.size());
+        strings.write(bytes.length >>> 8);
+        strings.write(bytes.length);
+        strings.write(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,9 @@
+package com.openclassroom.mareu.service.storage;
+
+public class MeetingStorageException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public MeetingStorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,144 @@
+package com.openclassroom.mareu.service.transfer;
+
+import com.openclassroom.mareu.model.Meeting;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads meetings from CSV (RFC 4180) with the columns of {@link MeetingCsvWriter#HEADER}, the header
+ * line being optional. Participants are separated by semicolons in their column.
+ * <p>
+ * Characters are parsed from a fixed buffer, so memory does not depend on the size of the file.
+ */
+public class MeetingCsvReader implements MeetingReader {
+    private static final int COLUMNS = 5;
+
+    private final Reader mIn;
+    private final char[] mBuffer = new char[8192];
+    private int mPosition;
+    private int mLimit;
+    private int mLine;
+    private final List<String> mFields = new ArrayList<>(COLUMNS);
+    private final StringBuilder mField = new StringBuilder();
+
+    public MeetingCsvReader(Reader in) {
+        mIn = in;
+    }
+
+    @Override
+    public Meeting read() throws IOException {
+        while (readRecord()) {
+            if (mFields.size() == 1 && mFields.get(0).isEmpty())
+                continue;
+            if (mLine == 1 && mFields.get(0).equals("start"))
+                continue;
+            return toMeeting();
+        }
+        return null;
+    }
+
+    private Meeting toMeeting() throws MeetingFormatException {
+        if (mFields.size() != COLUMNS)
+            throw new MeetingFormatException(mLine, COLUMNS + " columns expected, found " + mFields.size());
+        long start = TransferTime.parse(mFields.get(0));
+        if (start == Long.MIN_VALUE)
+            throw new MeetingFormatException(mLine, "Invalid start " + mFields.get(0));
+        int duration = parseInt(mFields.get(1));
+        int room = parseInt(mFields.get(2));
+        if (room > Meeting.MAX_ROOM)
+            throw new MeetingFormatException(mLine, "Invalid room " + room);
+        List<String> participants = new ArrayList<>();
+        String list = mFields.get(4);
+        int from = 0;
+        while (from <= list.length()) {
+            int end = list.indexOf(';', from);
+            if (end < 0)
+                end = list.length();
+            String participant = list.substring(from, end).trim();
+            if (!participant.isEmpty())
+                participants.add(participant);
+            from = end + 1;
+        }
+        if (participants.size() > Meeting.MAX_PARTICIPANTS)
+            throw new MeetingFormatException(mLine, "Too many participants: " + participants.size());
+        return new Meeting(start, duration, room, mFields.get(3), participants);
+    }
+
+    private int parseInt(String text) throws MeetingFormatException {
+        try {
+            int value = Integer.parseInt(text.trim());
+            if (value >= 0)
+                return value;
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new MeetingFormatException(mLine, "Invalid number " + text);
+    }
+
+    /**
+     * Reads the fields of the next record, quoted fields may hold separators, quotes (doubled) and line breaks.
+     *
+     * @return false at the end of the file
+     */
+    private boolean readRecord() throws IOException {
+        mFields.clear();
+        mField.setLength(0);
+        int c = next();
+        if (c < 0)
+            return false;
+        mLine++;
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0)
+                    throw new MeetingFormatException(mLine, "Unterminated quoted field");
+                if (c == '"') {
+                    int following = next();
+                    if (following == '"')
+                        mField.append('"');
+                    else {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n')
+                        mLine++;
+                    mField.append((char) c);
+                }
+            } else if (c == ',' || c == '\n' || c < 0) {
+                mFields.add(mField.toString());
+                mField.setLength(0);
+                wasQuoted = false;
+                if (c != ',')
+                    return true;
+            } else if (c == '"' && mField.length() == 0 && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c != '\r')
+                mField.append((char) c);
+            c = next();
+        }
+    }
+
+    private int next() throws IOException {
+        if (mPosition == mLimit) {
+            mLimit = mIn.read(mBuffer, 0, mBuffer.length);
+            mPosition = 0;
+            if (mLimit <= 0) {
+                mLimit = 0;
+                return -1;
+            }
+        }
+        return mBuffer[mPosition++];
+    }
+
+    @Override
+    public void close() throws IOException {
+        mIn.close();
+    }
+}
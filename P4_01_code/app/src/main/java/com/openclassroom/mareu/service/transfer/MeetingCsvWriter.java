@@ -0,0 +1,71 @@
+package com.openclassroom.mareu.service.transfer;
+
+import com.openclassroom.mareu.model.Meeting;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes meetings as CSV (RFC 4180), one line per meeting after a {@link #HEADER} line.
+ */
+public class MeetingCsvWriter implements MeetingWriter {
+    public static final String HEADER = "start,duration,room,subject,participants";
+
+    private final Writer mOut;
+    private final StringBuilder mLine = new StringBuilder(128);
+
+    public MeetingCsvWriter(Writer out) throws IOException {
+        mOut = out;
+        mOut.write(HEADER);
+        mOut.write("\r\n");
+    }
+
+    @Override
+    public void write(Meeting meeting) throws IOException {
+        mLine.setLength(0);
+        TransferTime.append(mLine, meeting.getStart(), false);
+        mLine.append(',').append(meeting.getDuration()).append(',').append(meeting.getRoom()).append(',');
+        appendField(meeting.getSubject());
+        mLine.append(',');
+        List<String> participants = meeting.getParticipants();
+        int start = mLine.length();
+        for (int i = 0; i < participants.size(); i++) {
+            if (i > 0)
+                mLine.append(';');
+            mLine.append(participants.get(i));
+        }
+        quoteIfNeeded(start);
+        mLine.append("\r\n");
+        mOut.append(mLine);
+    }
+
+    private void appendField(String value) {
+        int start = mLine.length();
+        mLine.append(value);
+        quoteIfNeeded(start);
+    }
+
+    /**
+     * Quotes the field written from start if it holds a separator, a quote or a line break.
+     */
+    private void quoteIfNeeded(int start) {
+        boolean quote = false;
+        for (int i = start; i < mLine.length() && !quote; i++) {
+            char c = mLine.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote)
+            return;
+        for (int i = mLine.length() - 1; i >= start; i--) {
+            if (mLine.charAt(i) == '"')
+                mLine.insert(i, '"');
+        }
+        mLine.insert(start, '"').append('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        mOut.close();
+    }
+}
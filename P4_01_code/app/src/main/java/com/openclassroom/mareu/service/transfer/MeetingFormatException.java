@@ -0,0 +1,18 @@
+package com.openclassroom.mareu.service.transfer;
+
+import java.io.IOException;
+
+public class MeetingFormatException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int mLine;
+
+    public MeetingFormatException(int line, String message) {
+        super("Line " + line + ": " + message);
+        mLine = line;
+    }
+
+    public int getLine() {
+        return mLine;
+    }
+}
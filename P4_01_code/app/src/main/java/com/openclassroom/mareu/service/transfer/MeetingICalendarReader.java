@@ -0,0 +1,227 @@
+package com.openclassroom.mareu.service.transfer;
+
+import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.model.MeetingTime;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads the events of an iCalendar file (RFC 5545) as meetings, one VEVENT at a time.
+ * <p>
+ * The start comes from DTSTART, the duration from DURATION or DTEND, the room from the number in
+ * LOCATION, the subject from SUMMARY and the participants from the mailto addresses of ATTENDEE.
+ * Times are read as wall clock times, their time zone is ignored like everywhere in the application.
+ */
+public class MeetingICalendarReader implements MeetingReader {
+    private final BufferedReader mIn;
+    private String mNextLine;
+    private int mLine;
+    private int mNextLineNumber;
+
+    public MeetingICalendarReader(Reader in) {
+        mIn = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, 8192);
+    }
+
+    @Override
+    public Meeting read() throws IOException {
+        String line;
+        while ((line = readLine()) != null) {
+            if (line.equalsIgnoreCase("BEGIN:VEVENT"))
+                return readEvent();
+        }
+        return null;
+    }
+
+    private Meeting readEvent() throws IOException {
+        int eventLine = mLine;
+        long start = Long.MIN_VALUE;
+        long end = Long.MIN_VALUE;
+        int duration = -1;
+        int room = 0;
+        String subject = "";
+        List<String> participants = new ArrayList<>();
+        String line;
+        while ((line = readLine()) != null) {
+            int colon = valueStart(line);
+            if (colon < 0)
+                continue;
+            int semicolon = line.indexOf(';');
+            String name = line.substring(0, semicolon >= 0 && semicolon < colon ? semicolon : colon).toUpperCase(Locale.ROOT);
+            String value = line.substring(colon + 1);
+            switch (name) {
+                case "END":
+                    if (!value.equalsIgnoreCase("VEVENT"))
+                        break;
+                    if (start == Long.MIN_VALUE)
+                        throw new MeetingFormatException(eventLine, "Event without DTSTART");
+                    if (duration < 0)
+                        duration = end != Long.MIN_VALUE ? (int) Math.max(0, end - start) : 0;
+                    if (room > Meeting.MAX_ROOM)
+                        throw new MeetingFormatException(eventLine, "Invalid room " + room);
+                    if (participants.size() > Meeting.MAX_PARTICIPANTS)
+                        throw new MeetingFormatException(eventLine, "Too many participants: " + participants.size());
+                    return new Meeting(start, duration, room, subject, participants);
+                case "DTSTART":
+                    start = parseTime(value);
+                    break;
+                case "DTEND":
+                    end = parseTime(value);
+                    break;
+                case "DURATION":
+                    duration = parseDuration(value);
+                    break;
+                case "LOCATION":
+                    room = parseRoom(unescape(value));
+                    break;
+                case "SUMMARY":
+                    subject = unescape(value);
+                    break;
+                case "ATTENDEE":
+                    if (value.regionMatches(true, 0, "mailto:", 0, 7))
+                        value = value.substring(7);
+                    if (!value.isEmpty())
+                        participants.add(value);
+                    break;
+                case "BEGIN":
+                    // Nested components such as VALARM hold no property of the meeting
+                    skipComponent(value);
+                    break;
+            }
+        }
+        throw new MeetingFormatException(eventLine, "Unterminated VEVENT");
+    }
+
+    private void skipComponent(String component) throws IOException {
+        String end = "END:" + component;
+        String line;
+        while ((line = readLine()) != null) {
+            if (line.equalsIgnoreCase(end))
+                return;
+        }
+    }
+
+    /**
+     * @return the index of the colon ending the name and parameters, skipping quoted parameter values
+     */
+    private static int valueStart(String line) {
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"')
+                quoted = !quoted;
+            else if (c == ':' && !quoted)
+                return i;
+        }
+        return -1;
+    }
+
+    private long parseTime(String value) throws MeetingFormatException {
+        long time = TransferTime.parse(value);
+        if (time == Long.MIN_VALUE)
+            throw new MeetingFormatException(mLine, "Invalid date " + value);
+        return time;
+    }
+
+    /**
+     * @return the minutes of a duration such as PT1H30M, P1D or P2W
+     */
+    private int parseDuration(String value) throws MeetingFormatException {
+        long minutes = 0;
+        long number = 0;
+        boolean valid = value.startsWith("P") || value.startsWith("+P");
+        for (int i = value.indexOf('P') + 1; i < value.length() && valid; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9')
+                number = number * 10 + c - '0';
+            else {
+                switch (c) {
+                    case 'W':
+                        minutes += number * 7 * MeetingTime.MINUTES_PER_DAY;
+                        break;
+                    case 'D':
+                        minutes += number * MeetingTime.MINUTES_PER_DAY;
+                        break;
+                    case 'H':
+                        minutes += number * 60;
+                        break;
+                    case 'M':
+                        minutes += number;
+                        break;
+                    case 'S':
+                    case 'T':
+                        break;
+                    default:
+                        valid = false;
+                }
+                number = 0;
+            }
+        }
+        if (!valid || minutes > Integer.MAX_VALUE)
+            throw new MeetingFormatException(mLine, "Invalid duration " + value);
+        return (int) minutes;
+    }
+
+    /**
+     * @return the last number of location, e.g. 3 for "Salle 3", 0 if there is none
+     */
+    private static int parseRoom(String location) {
+        int end = location.length();
+        while (end > 0 && !Character.isDigit(location.charAt(end - 1)))
+            end--;
+        int start = end;
+        while (start > 0 && Character.isDigit(location.charAt(start - 1)))
+            start--;
+        return start < end && end - start < 10 ? Integer.parseInt(location.substring(start, end)) : 0;
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0)
+            return value;
+        StringBuilder text = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char escaped = value.charAt(++i);
+                text.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+            } else
+                text.append(c);
+        }
+        return text.toString();
+    }
+
+    /**
+     * @return the next content line, unfolded
+     */
+    private String readLine() throws IOException {
+        String line = mNextLine != null ? mNextLine : mIn.readLine();
+        mLine = mNextLine != null ? mNextLineNumber : mLine + 1;
+        mNextLine = null;
+        if (line == null)
+            return null;
+        StringBuilder unfolded = null;
+        String next;
+        int nextNumber = mLine;
+        while ((next = mIn.readLine()) != null) {
+            nextNumber++;
+            if (next.isEmpty() || next.charAt(0) != ' ' && next.charAt(0) != '\t') {
+                mNextLine = next;
+                mNextLineNumber = nextNumber;
+                break;
+            }
+            if (unfolded == null)
+                unfolded = new StringBuilder(line);
+            unfolded.append(next, 1, next.length());
+        }
+        return unfolded != null ? unfolded.toString() : line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mIn.close();
+    }
+}
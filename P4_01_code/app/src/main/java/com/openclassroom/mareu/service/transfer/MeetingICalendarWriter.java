@@ -0,0 +1,99 @@
+package com.openclassroom.mareu.service.transfer;
+
+import com.openclassroom.mareu.model.Meeting;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes meetings as the events of an iCalendar file (RFC 5545), closed by {@link #close()}.
+ * Times are written as floating wall clock times, the application has no time zone.
+ */
+public class MeetingICalendarWriter implements MeetingWriter {
+    public static final String LOCATION_PREFIX = "Salle ";
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final Writer mOut;
+    private final StringBuilder mLine = new StringBuilder(128);
+
+    public MeetingICalendarWriter(Writer out) throws IOException {
+        mOut = out;
+        writeLine("BEGIN:VCALENDAR");
+        writeLine("VERSION:2.0");
+        writeLine("PRODID:-//Mareu//Meetings//FR");
+    }
+
+    @Override
+    public void write(Meeting meeting) throws IOException {
+        writeLine("BEGIN:VEVENT");
+        writeLine("UID:meeting-" + meeting.getId() + "@mareu");
+        // The creation time of a meeting is not known, its start stands for it
+        mLine.setLength(0);
+        mLine.append("DTSTAMP:");
+        TransferTime.append(mLine, meeting.getStart(), true);
+        writeLine(mLine);
+        mLine.setLength(0);
+        mLine.append("DTSTART:");
+        TransferTime.append(mLine, meeting.getStart(), true);
+        writeLine(mLine);
+        mLine.setLength(0);
+        mLine.append("DURATION:PT").append(meeting.getDuration()).append('M');
+        writeLine(mLine);
+        mLine.setLength(0);
+        mLine.append("LOCATION:").append(LOCATION_PREFIX).append(meeting.getRoom());
+        writeLine(mLine);
+        mLine.setLength(0);
+        mLine.append("SUMMARY:");
+        appendEscaped(meeting.getSubject());
+        writeLine(mLine);
+        List<String> participants = meeting.getParticipants();
+        for (int i = 0; i < participants.size(); i++) {
+            mLine.setLength(0);
+            mLine.append("ATTENDEE:mailto:").append(participants.get(i));
+            writeLine(mLine);
+        }
+        writeLine("END:VEVENT");
+    }
+
+    private void appendEscaped(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' || c == ';' || c == ',')
+                mLine.append('\\').append(c);
+            else if (c == '\n')
+                mLine.append("\\n");
+            else if (c != '\r')
+                mLine.append(c);
+        }
+    }
+
+    /**
+     * Writes line folded every 75 octets of UTF-8, without splitting a character.
+     */
+    private void writeLine(CharSequence line) throws IOException {
+        int octets = 0;
+        int from = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            int size = c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isHighSurrogate(c) ? 4 : Character.isLowSurrogate(c) ? 0 : 3;
+            if (octets + size > MAX_LINE_OCTETS) {
+                mOut.append(line, from, i).append("\r\n ");
+                from = i;
+                // The leading space counts in the folded line
+                octets = 1;
+            }
+            octets += size;
+        }
+        mOut.append(line, from, line.length()).append("\r\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writeLine("END:VCALENDAR");
+        } finally {
+            mOut.close();
+        }
+    }
+}
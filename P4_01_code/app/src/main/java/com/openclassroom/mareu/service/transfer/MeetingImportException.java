@@ -0,0 +1,32 @@
+package com.openclassroom.mareu.service.transfer;
+
+import java.io.IOException;
+
+/**
+ * Thrown when an import stops partway: the meetings of the batches read before the failure are
+ * created and stay created.
+ */
+public class MeetingImportException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int mImported;
+
+    public MeetingImportException(int imported, Throwable cause) {
+        super(imported + " meetings imported before: " + cause.getMessage(), cause);
+        mImported = imported;
+    }
+
+    /**
+     * @return the number of meetings created before the failure
+     */
+    public int getImported() {
+        return mImported;
+    }
+
+    /**
+     * @return the line of the file the import stopped at, 0 if it did not stop on a malformed line
+     */
+    public int getLine() {
+        return getCause() instanceof MeetingFormatException ? ((MeetingFormatException) getCause()).getLine() : 0;
+    }
+}
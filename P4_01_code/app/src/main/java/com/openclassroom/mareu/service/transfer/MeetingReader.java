@@ -0,0 +1,16 @@
+package com.openclassroom.mareu.service.transfer;
+
+import com.openclassroom.mareu.model.Meeting;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Streams the meetings of a file one by one.
+ */
+public interface MeetingReader extends Closeable {
+    /**
+     * @return the next meeting, a new one with its own id, null at the end of the file
+     */
+    Meeting read() throws IOException;
+}
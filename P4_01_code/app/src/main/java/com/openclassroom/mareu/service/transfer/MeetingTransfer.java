@@ -0,0 +1,99 @@
+package com.openclassroom.mareu.service.transfer;
+
+import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.service.MeetingApiService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves meetings between a service and CSV or iCalendar files, streaming them so that memory does
+ * not depend on the number of meetings.
+ */
+public final class MeetingTransfer {
+    public static final int BATCH_SIZE = 4096;
+    // Smaller than the pages read, a concurrent service holds its write lock for each batch created
+    public static final int IMPORT_BATCH_SIZE = 512;
+
+    private MeetingTransfer() {
+    }
+
+    /**
+     * @return a reader of the iCalendar events of in if it starts with BEGIN:VCALENDAR, of its CSV lines otherwise
+     */
+    public static MeetingReader reader(Reader in) throws IOException {
+        BufferedReader buffered = new BufferedReader(in, 8192);
+        String calendar = "BEGIN:VCALENDAR";
+        char[] head = new char[calendar.length() + 1];
+        buffered.mark(head.length);
+        int length = 0;
+        int read;
+        while (length < head.length && (read = buffered.read(head, length, head.length - length)) > 0)
+            length += read;
+        buffered.reset();
+        // A byte order mark may come first
+        int offset = length > 0 && head[0] == '\uFEFF' ? 1 : 0;
+        if (offset == 1)
+            buffered.skip(1);
+        return length - offset >= calendar.length() && calendar.regionMatches(true, 0, new String(head, offset, length - offset), 0, calendar.length())
+                ? new MeetingICalendarReader(buffered)
+                : new MeetingCsvReader(buffered);
+    }
+
+    /**
+     * Creates the meetings of reader by batches of {@link #IMPORT_BATCH_SIZE}, then closes it.
+     *
+     * @return the number of meetings created
+     * @throws MeetingImportException if reading or creating a batch fails, with the number of
+     *                                meetings of the batches created before
+     */
+    public static int importMeetings(MeetingReader reader, MeetingApiService service) throws IOException {
+        int count = 0;
+        try {
+            List<Meeting> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+            Meeting meeting;
+            while ((meeting = reader.read()) != null) {
+                batch.add(meeting);
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    service.createMeetings(batch);
+                    count += batch.size();
+                    batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                service.createMeetings(batch);
+                count += batch.size();
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new MeetingImportException(count, e);
+        } finally {
+            reader.close();
+        }
+        return count;
+    }
+
+    /**
+     * Writes every meeting of service sorted by start, reading them page by page, then closes writer.
+     *
+     * @return the number of meetings written
+     */
+    public static int exportMeetings(MeetingApiService service, MeetingWriter writer) throws IOException {
+        int count = 0;
+        try {
+            List<Meeting> page = service.getMeetingsAfter(Long.MIN_VALUE, 0, BATCH_SIZE);
+            while (!page.isEmpty()) {
+                for (Meeting meeting : page)
+                    writer.write(meeting);
+                count += page.size();
+                Meeting last = page.get(page.size() - 1);
+                page = service.getMeetingsAfter(last.getStart(), last.getId(), BATCH_SIZE);
+            }
+        } finally {
+            writer.close();
+        }
+        return count;
+    }
+}
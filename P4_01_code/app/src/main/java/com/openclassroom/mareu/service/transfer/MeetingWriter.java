@@ -0,0 +1,13 @@
+package com.openclassroom.mareu.service.transfer;
+
+import com.openclassroom.mareu.model.Meeting;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Streams meetings to a file one by one, the file is complete once closed.
+ */
+public interface MeetingWriter extends Closeable {
+    void write(Meeting meeting) throws IOException;
+}
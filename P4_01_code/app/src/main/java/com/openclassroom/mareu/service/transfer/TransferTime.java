@@ -0,0 +1,81 @@
+package com.openclassroom.mareu.service.transfer;
+
+import com.openclassroom.mareu.model.MeetingTime;
+
+/**
+ * Date and time fields of the transfer formats, written and read without any allocation but the result.
+ */
+final class TransferTime {
+    private TransferTime() {
+    }
+
+    /**
+     * Appends epochMinute as yyyy-MM-ddTHH:mm, or yyyyMMddTHHmmss when basic (iCalendar).
+     */
+    static void append(StringBuilder out, long epochMinute, boolean basic) {
+        int ymd = MeetingTime.toYearMonthDay(MeetingTime.epochDay(epochMinute));
+        int minuteOfDay = MeetingTime.minuteOfDay(epochMinute);
+        appendDigits(out, ymd / 10000, 4);
+        if (!basic)
+            out.append('-');
+        appendDigits(out, ymd / 100 % 100, 2);
+        if (!basic)
+            out.append('-');
+        appendDigits(out, ymd % 100, 2);
+        out.append('T');
+        appendDigits(out, minuteOfDay / 60, 2);
+        if (!basic)
+            out.append(':');
+        appendDigits(out, minuteOfDay % 60, 2);
+        if (basic)
+            out.append("00");
+    }
+
+    private static void appendDigits(StringBuilder out, int value, int count) {
+        for (int divisor = count == 4 ? 1000 : 10; divisor > 0; divisor /= 10)
+            out.append((char) ('0' + value / divisor % 10));
+    }
+
+    /**
+     * Parses yyyy-MM-ddTHH:mm (a space may separate the date and time) or the iCalendar basic
+     * forms yyyyMMddTHHmmss[Z] and yyyyMMdd, seconds and time zone being ignored.
+     *
+     * @return the epoch minute, or Long.MIN_VALUE if text is not a date and time
+     */
+    static long parse(String text) {
+        boolean basic = text.length() >= 8 && text.charAt(4) != '-';
+        int year = digits(text, 0, 4);
+        int month = digits(text, basic ? 4 : 5, 2);
+        int day = digits(text, basic ? 6 : 8, 2);
+        int timeStart = basic ? 8 : 10;
+        int hour = 0;
+        int minute = 0;
+        if (text.length() > timeStart) {
+            char separator = text.charAt(timeStart);
+            if (separator != 'T' && separator != ' ')
+                return Long.MIN_VALUE;
+            hour = digits(text, timeStart + 1, 2);
+            minute = digits(text, timeStart + (basic ? 3 : 4), 2);
+        } else if (text.length() != timeStart)
+            return Long.MIN_VALUE;
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || hour > 23 || minute < 0 || minute > 59)
+            return Long.MIN_VALUE;
+        return MeetingTime.of(year, month, day, hour, minute);
+    }
+
+    /**
+     * @return the number written with count digits at offset, -1 if there is none
+     */
+    private static int digits(String text, int offset, int count) {
+        if (offset + count > text.length())
+            return -1;
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9')
+                return -1;
+            value = value * 10 + c - '0';
+        }
+        return value;
+    }
+}
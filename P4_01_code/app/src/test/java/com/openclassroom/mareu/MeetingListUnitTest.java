@@ -1,19 +1,63 @@
 package com.openclassroom.mareu;
 
 
+import com.openclassroom.mareu.callback.IMeetingViewListener;
 import com.openclassroom.mareu.di.DI;
 import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.model.MeetingCodec;
+import com.openclassroom.mareu.model.MeetingTime;
+import com.openclassroom.mareu.model.ParticipantDictionary;
 import com.openclassroom.mareu.service.MeetingApiService;
+import com.openclassroom.mareu.service.MeetingApiServiceArchiving;
+import com.openclassroom.mareu.service.MeetingApiServiceAsync;
+import com.openclassroom.mareu.service.MeetingApiServiceCached;
+import com.openclassroom.mareu.service.MeetingApiServiceConcurrent;
+import com.openclassroom.mareu.service.MeetingApiServiceDummy;
+import com.openclassroom.mareu.service.MeetingApiServiceIndexed;
+import com.openclassroom.mareu.service.MeetingApiServicePersistent;
+import com.openclassroom.mareu.service.MeetingArchive;
+import com.openclassroom.mareu.service.MeetingBatch;
+import com.openclassroom.mareu.service.MeetingChangeSet;
+import com.openclassroom.mareu.service.MeetingFilter;
+import com.openclassroom.mareu.service.MeetingGenerator;
+import com.openclassroom.mareu.service.MeetingView;
+import com.openclassroom.mareu.service.transfer.MeetingCsvWriter;
+import com.openclassroom.mareu.service.transfer.MeetingICalendarWriter;
+import com.openclassroom.mareu.service.transfer.MeetingImportException;
+import com.openclassroom.mareu.service.transfer.MeetingTransfer;
+import com.openclassroom.mareu.service.transfer.MeetingWriter;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Unit test on Neighbour service
@@ -23,6 +67,9 @@ public class MeetingListUnitTest {
 
     private MeetingApiService mMeetingApiService;
 
+    @Rule
+    public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
     @Before
     public void setup() {
         mMeetingApiService = DI.getNewMeetingApiService();
@@ -43,9 +90,966 @@ public class MeetingListUnitTest {
     @Test
     public void addMeetingWithSuccess() {
         int size = mMeetingApiService.getMeetings().size();
-        Meeting meetingToAdd = new Meeting("19/07/2020", "08h40", "4", "Test",
+        Meeting meetingToAdd = new Meeting(MeetingTime.of(2020, 7, 19, 8, 40), 45, 4, "Test",
                 Arrays.asList("jean@email.com", "lea@email.com", "nina@email.com"));
         mMeetingApiService.createMeeting(meetingToAdd);
         assertEquals(mMeetingApiService.getMeetings().size(), size + 1);
     }
+
+    private static MeetingFilter roomDay(int room, int day) {
+        return MeetingFilter.any().rooms(room).days(day, day);
+    }
+
+    @Test
+    public void filterMeetingWithSuccess() {
+        assertEquals(1, mMeetingApiService.getFilteredList(roomDay(1, MeetingTime.toEpochDay(2021, 2, 1))).size());
+        Meeting meetingToAdd = new Meeting(MeetingTime.of(2021, 2, 1, 10, 0), 45, 1, "Test",
+                Arrays.asList("jean@email.com", "lea@email.com"));
+        mMeetingApiService.createMeeting(meetingToAdd);
+        assertEquals(2, mMeetingApiService.getFilteredList(roomDay(1, MeetingTime.toEpochDay(2021, 2, 1))).size());
+        mMeetingApiService.removeMeeting(meetingToAdd);
+        assertEquals(1, mMeetingApiService.getFilteredList(roomDay(1, MeetingTime.toEpochDay(2021, 2, 1))).size());
+        assertEquals(0, mMeetingApiService.getFilteredList(roomDay(9, MeetingTime.toEpochDay(2021, 2, 1))).size());
+    }
+
+    @Test
+    public void packedMeetingTimeIsDisplayedWithSuccess() {
+        Meeting meeting = mMeetingApiService.getMeetings().get(0);
+        assertEquals("01/02/2021", meeting.getDate());
+        assertEquals("08h40", meeting.getTime());
+        assertEquals(0, MeetingTime.toEpochDay(1970, 1, 1));
+        assertEquals(20240229, MeetingTime.toYearMonthDay(MeetingTime.toEpochDay(2024, 2, 29)));
+    }
+
+    @Test
+    public void rangeQueriesWithSuccess() {
+        MeetingApiService reference = new MeetingApiServiceDummy();
+        long from = MeetingTime.of(2021, 7, 22, 0, 0);
+        long to = MeetingTime.of(2021, 8, 1, 14, 0);
+        MeetingFilter between = MeetingFilter.any().starts(from, to);
+        assertEquals(reference.getFilteredList(between), mMeetingApiService.getFilteredList(between));
+        assertEquals(6, mMeetingApiService.getFilteredList(between).size());
+        assertEquals(reference.getMeetingsAfter(from, Integer.MIN_VALUE, 3), mMeetingApiService.getMeetingsAfter(from, Integer.MIN_VALUE, 3));
+        assertEquals("Reunion5", mMeetingApiService.getMeetingsAfter(from, Integer.MIN_VALUE, 3).get(0).getSubject());
+
+        int fromDay = MeetingTime.toEpochDay(2021, 1, 1);
+        int toDay = MeetingTime.toEpochDay(2021, 12, 31);
+        MeetingFilter window = MeetingFilter.any().days(fromDay, toDay).timeOfDay(14 * 60, 16 * 60);
+        List<Meeting> afternoon = mMeetingApiService.getFilteredList(window);
+        assertEquals(reference.getFilteredList(window), afternoon);
+        assertEquals(8, afternoon.size());
+    }
+
+    @Test
+    public void conflictDetectionWithSuccess() {
+        Meeting overlapping = new Meeting(MeetingTime.of(2021, 2, 1, 9, 0), 60, 1, "Test",
+                Arrays.asList("jean@email.com", "lea@email.com"));
+        assertEquals(1, mMeetingApiService.getConflicts(overlapping).size());
+        assertEquals("Reunion1", mMeetingApiService.getConflicts(overlapping).get(0).getSubject());
+        Meeting otherRoom = new Meeting(overlapping.getStart(), overlapping.getDuration(), 2, "Test",
+                overlapping.getParticipants());
+        assertTrue(mMeetingApiService.getConflicts(otherRoom).isEmpty());
+        Meeting afterwards = new Meeting(MeetingTime.of(2021, 2, 1, 9, 25), 60, 1, "Test",
+                Arrays.asList("jean@email.com", "lea@email.com"));
+        assertTrue(mMeetingApiService.getConflicts(afterwards).isEmpty());
+
+        // Random bookings, removals and overlap checks must match a plain scan
+        MeetingApiService reference = new MeetingApiServiceDummy();
+        Random random = new Random(42);
+        long origin = MeetingTime.of(2021, 1, 1, 8, 0);
+        for (int i = 0; i < 2000; i++) {
+            Meeting meeting = new Meeting(origin + random.nextInt(20000), 15 + random.nextInt(120),
+                    1 + random.nextInt(3), "Random" + i, Arrays.asList("bob@email.com"));
+            assertEquals(new HashSet<>(reference.getConflicts(meeting)), new HashSet<>(mMeetingApiService.getConflicts(meeting)));
+            if (random.nextInt(4) == 0 && !reference.getMeetings().isEmpty()) {
+                Meeting toRemove = reference.getMeetings().get(random.nextInt(reference.getMeetings().size()));
+                reference.removeMeeting(toRemove);
+                mMeetingApiService.removeMeeting(toRemove);
+            } else {
+                reference.createMeeting(meeting);
+                mMeetingApiService.createMeeting(meeting);
+            }
+        }
+        // An equal copy, e.g. parceled, is not in conflict with itself
+        Meeting stored = reference.getMeetings().get(0);
+        Meeting copy = new Meeting(stored.getId(), stored.getStart(), stored.getDuration(), stored.getRoom(),
+                stored.getSubject(), stored.getParticipants());
+        assertFalse(reference.getConflicts(copy).contains(stored));
+        assertEquals(new HashSet<>(reference.getConflicts(copy)), new HashSet<>(mMeetingApiService.getConflicts(copy)));
+    }
+
+    @Test
+    public void persistentMeetingsSurviveRestart() throws IOException {
+        File directory = mTemporaryFolder.newFolder();
+        // Left by a first launch which died before writing its snapshot
+        try (FileOutputStream log = new FileOutputStream(new File(directory, "meetings.log"))) {
+            log.write(new byte[8]);
+        }
+        MeetingApiServicePersistent service = new MeetingApiServicePersistent(directory);
+        assertEquals(12, service.getMeetings().size());
+        Meeting meetingToAdd = new Meeting(MeetingTime.of(2021, 9, 1, 10, 0), 30, 6, "Persisted",
+                Arrays.asList("jean@email.com", "lea@email.com"));
+        service.createMeeting(meetingToAdd);
+        service.removeMeeting(service.getMeetings().get(0));
+        service.close();
+
+        // Simulate a crash in the middle of an append
+        try (FileOutputStream log = new FileOutputStream(new File(directory, "meetings.log"), true)) {
+            log.write(new byte[]{0, 0, 0, 42, 1, 2});
+        }
+
+        service = new MeetingApiServicePersistent(directory);
+        assertEquals(12, service.getMeetings().size());
+        assertFalse(service.getMeetings().get(0).getSubject().equals("Reunion1"));
+        assertEquals("Persisted", service.getMeetings().get(11).getSubject());
+        assertEquals(meetingToAdd.getId(), service.getMeetings().get(11).getId());
+        assertEquals(1, service.getFilteredList(roomDay(6, MeetingTime.toEpochDay(2021, 9, 1))).size());
+        service.compact();
+        service.createMeeting(new Meeting(MeetingTime.of(2021, 9, 2, 10, 0), 30, 6, "Persisted2",
+                Arrays.asList("jean@email.com", "lea@email.com")));
+        // Refused changes are neither applied nor logged
+        Meeting fresh = new Meeting(MeetingTime.of(2021, 9, 3, 10, 0), 30, 6, "Refused",
+                Arrays.asList("jean@email.com"));
+        try {
+            service.createMeetings(Arrays.asList(fresh, meetingToAdd));
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertNull(service.getMeeting(fresh.getId()));
+        }
+        try {
+            service.createMeeting(meetingToAdd);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertEquals(13, service.getMeetings().size());
+        }
+        service.close();
+
+        service = new MeetingApiServicePersistent(directory);
+        assertEquals(13, service.getMeetings().size());
+        assertEquals(Arrays.asList("jean@email.com", "lea@email.com"), service.getMeetings().get(11).getParticipants());
+        assertEquals(30, service.getMeetings().get(11).getDuration());
+        assertEquals(6, service.getMeetings().get(11).getRoom());
+        service.compact();
+        List<Meeting> byStart = service.getMeetingsByStart(0, 20);
+        service.close();
+
+        // Pages by time are read from the snapshot until a call needs the indexes
+        service = new MeetingApiServicePersistent(directory);
+        for (int loaded = 0; loaded < 2; loaded++) {
+            assertEquals(byStart, service.getMeetingsByStart(0, 20));
+            assertEquals(byStart.subList(3, 8), service.getMeetingsAfter(byStart.get(2).getStart(), byStart.get(2).getId(), 5));
+            assertEquals(byStart.subList(0, 4), service.getMeetingsBefore(byStart.get(4).getStart(), byStart.get(4).getId(), 10));
+            assertEquals(Collections.emptyList(), service.getMeetingsByStart(13, 5));
+            assertEquals(13, service.getMeetings().size());
+        }
+        service.removeMeeting(byStart.get(0));
+        assertEquals(byStart.subList(1, 13), service.getMeetingsByStart(0, 20));
+        service.close();
+
+        // A corrupted length is dropped like a torn record rather than allocated
+        try (FileOutputStream log = new FileOutputStream(new File(directory, "meetings.log"), true)) {
+            log.write(new byte[]{0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 1, 2});
+        }
+        service = new MeetingApiServicePersistent(directory);
+        assertEquals(byStart.subList(1, 13), service.getMeetingsByStart(0, 20));
+        service.close();
+    }
+
+    @Test
+    public void reopenedStoreKeepsNewIdsUniqueWithSuccess() throws IOException {
+        File directory = mTemporaryFolder.newFolder();
+        MeetingApiServicePersistent service = new MeetingApiServicePersistent(directory);
+        service.compact();
+        service.close();
+
+        // As after a restart, the last record holds an id no meeting of this process reserved
+        int storedId = new Meeting(MeetingTime.of(2021, 9, 1, 10, 0), 30, 6, "Probe",
+                Arrays.asList("jean@email.com")).getId() + 1000;
+        try (RandomAccessFile snapshot = new RandomAccessFile(new File(directory, "meetings.snapshot"), "rw")) {
+            snapshot.seek(16);
+            int count = snapshot.readInt();
+            snapshot.seek(32 + (count - 1) * 28 + 24);
+            snapshot.writeInt(storedId);
+        }
+
+        service = new MeetingApiServicePersistent(directory);
+        // Only a page is decoded when the meeting to add is built
+        service.getMeetingsByStart(0, 1);
+        Meeting meeting = new Meeting(MeetingTime.of(2021, 9, 1, 10, 0), 30, 6, "Reopened",
+                Arrays.asList("jean@email.com"));
+        assertTrue(meeting.getId() > storedId);
+        service.createMeeting(meeting);
+        assertEquals(13, service.getMeetings().size());
+        assertEquals(storedId, service.getMeetingsByStart(11, 1).get(0).getId());
+        service.close();
+    }
+
+    @Test
+    public void asyncCallsRunInOrderOffTheCallerThread() throws InterruptedException {
+        // Calls made before the service is opened wait for it
+        CountDownLatch opening = new CountDownLatch(1);
+        MeetingApiServiceAsync service = new MeetingApiServiceAsync(() -> {
+            assertTrue(opening.await(5, TimeUnit.SECONDS));
+            return mMeetingApiService;
+        }, Runnable::run);
+        List<Exception> errors = Collections.synchronizedList(new ArrayList<>());
+        service.setErrorCallback(errors::add);
+        Thread caller = Thread.currentThread();
+        CountDownLatch done = new CountDownLatch(1);
+        List<Object> results = new ArrayList<>();
+        Meeting meetingToAdd = new Meeting(MeetingTime.of(2021, 9, 1, 10, 0), 30, 6, "Async",
+                Arrays.asList("jean@email.com", "lea@email.com"));
+        service.createMeeting(meetingToAdd, index -> results.add(index));
+        // A failing call is reported to the error callback, the next calls still run
+        service.submit(() -> {
+            throw new IOException("Failed");
+        }, result -> fail());
+        // An error ends the worker thread, but not the count of pending calls
+        service.submit(() -> {
+            throw new StackOverflowError("Expected by the test");
+        }, result -> fail());
+        service.getMeetings(meetings -> {
+            results.add(meetings.size());
+            results.add(Thread.currentThread() != caller);
+            done.countDown();
+        });
+        assertFalse(service.isIdle());
+        opening.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.<Object>asList(12, 13, true), results);
+        assertEquals(1, errors.size());
+        assertEquals("Failed", errors.get(0).getMessage());
+        assertTrue(service.isIdle());
+        assertSame(mMeetingApiService, service.getService());
+        service.shutdown();
+    }
+
+    @Test
+    public void meetingIdLookupsWithSuccess() {
+        MeetingApiService reference = new MeetingApiServiceDummy();
+        Meeting meeting = mMeetingApiService.getMeetings().get(5);
+        Meeting copy = new Meeting(meeting.getId(), meeting.getStart(), meeting.getDuration(), meeting.getRoom(),
+                meeting.getSubject(), meeting.getParticipants());
+        assertEquals(meeting, copy);
+        assertEquals(5, mMeetingApiService.indexOfMeeting(copy));
+        assertSame(meeting, mMeetingApiService.getMeeting(meeting.getId()));
+        mMeetingApiService.removeMeeting(copy);
+        assertNull(mMeetingApiService.getMeeting(meeting.getId()));
+        assertEquals(-1, mMeetingApiService.indexOfMeeting(meeting));
+
+        // Positions must follow insertions and removals like a plain list
+        reference.removeMeeting(meeting);
+        Random random = new Random(7);
+        for (int i = 0; i < 3000; i++) {
+            List<Meeting> meetings = reference.getMeetings();
+            if (random.nextInt(3) == 0 && !meetings.isEmpty()) {
+                Meeting toRemove = meetings.get(random.nextInt(meetings.size()));
+                reference.removeMeeting(toRemove);
+                mMeetingApiService.removeMeeting(toRemove);
+            } else {
+                Meeting toAdd = new Meeting(MeetingTime.of(2021, 3, 1, 8, 0) + i, 30, 1 + random.nextInt(10), "Random" + i,
+                        Arrays.asList("bob@email.com"));
+                reference.createMeeting(toAdd);
+                mMeetingApiService.createMeeting(toAdd);
+            }
+            Meeting probe = meetings.get(random.nextInt(meetings.size()));
+            assertEquals(reference.indexOfMeeting(probe), mMeetingApiService.indexOfMeeting(probe));
+        }
+        assertEquals(reference.getMeetings(), mMeetingApiService.getMeetings());
+        assertEquals(reference.getMeetings(), new ArrayList<>(mMeetingApiService.getMeetings()));
+    }
+
+    @Test
+    public void generatedMeetingsAreReproducible() {
+        MeetingGenerator generator = new MeetingGenerator(3).count(5000)
+                .days(MeetingTime.toEpochDay(2021, 3, 1), 14).weekdaysOnly(true)
+                .rooms(0, 5, 1)
+                .startTimes(9 * 60, 17 * 60, 30)
+                .participants(1, 4, 50, 1.2);
+        Iterator<Meeting> replay = new MeetingGenerator(3).count(5000)
+                .days(MeetingTime.toEpochDay(2021, 3, 1), 14).weekdaysOnly(true)
+                .rooms(0, 5, 1)
+                .startTimes(9 * 60, 17 * 60, 30)
+                .participants(1, 4, 50, 1.2).iterator();
+        int[] roomCounts = new int[4];
+        int count = 0;
+        for (Meeting meeting : generator) {
+            Meeting same = replay.next();
+            assertEquals(meeting.getStart(), same.getStart());
+            assertEquals(meeting.getDuration(), same.getDuration());
+            assertEquals(meeting.getRoom(), same.getRoom());
+            assertEquals(meeting.getParticipants(), same.getParticipants());
+            // 06/03/2021 and 07/03/2021 are a saturday and a sunday
+            assertFalse(meeting.getDate().startsWith("06/03") || meeting.getDate().startsWith("07/03"));
+            int minuteOfDay = MeetingTime.minuteOfDay(meeting.getStart());
+            assertTrue(minuteOfDay >= 9 * 60 && minuteOfDay <= 17 * 60 && minuteOfDay % 30 == 0);
+            assertTrue(meeting.getParticipants().size() >= 1 && meeting.getParticipants().size() <= 4);
+            assertEquals(meeting.getParticipants().size(), new HashSet<>(meeting.getParticipants()).size());
+            roomCounts[meeting.getRoom()]++;
+            count++;
+        }
+        assertFalse(replay.hasNext());
+        assertEquals(5000, count);
+        assertEquals(0, roomCounts[1]);
+        assertTrue(roomCounts[2] > 3 * roomCounts[3]);
+    }
+
+    @Test
+    public void participantsAreSharedWithSuccess() {
+        List<Meeting> meetings = mMeetingApiService.getMeetings();
+        Meeting first = meetings.get(0);
+        Meeting third = meetings.get(2);
+        assertEquals(Arrays.asList("jean@email.com", "lea@email.com", "nina@email.com"), first.getParticipants());
+        assertEquals(first.getParticipantIds()[0], third.getParticipantIds()[0]);
+        assertSame(first.getParticipants().get(0), third.getParticipants().get(0));
+
+        ParticipantDictionary dictionary = ParticipantDictionary.getInstance();
+        int id = dictionary.intern("new.person@email.com");
+        assertEquals(id, dictionary.find(new String("new.person@email.com")));
+        assertEquals("new.person@email.com", dictionary.get(id));
+        assertEquals(-1, dictionary.find("nobody@email.com"));
+        Meeting meeting = new Meeting(first.getStart(), first.getDuration(), first.getRoom(), first.getSubject(),
+                Arrays.asList("new.person@email.com"));
+        assertEquals(id, meeting.getParticipantIds()[0]);
+
+        // Each service gets its own copies of the dummy meetings
+        Meeting copy = DI.getNewMeetingApiService().getMeetings().get(0);
+        assertEquals(first, copy);
+        assertTrue(first != copy);
+        assertEquals(first.getParticipants(), copy.getParticipants());
+    }
+
+    @Test
+    public void participantMeetingsWithSuccess() {
+        List<Meeting> defaults = mMeetingApiService.getMeetings();
+        assertEquals(Arrays.asList(defaults.get(1), defaults.get(2), defaults.get(4), defaults.get(5), defaults.get(7)),
+                mMeetingApiService.getFilteredList(MeetingFilter.any().participant("juan@email.com")
+                        .starts(MeetingTime.of(2021, 2, 1, 0, 0), MeetingTime.of(2021, 7, 28, 15, 0))));
+        assertEquals(0, mMeetingApiService.getFilteredList(MeetingFilter.any().participant("nobody@email.com").starts(0, Long.MAX_VALUE)).size());
+
+        // A participant listed twice is filed once, by a batch as by a single creation
+        Meeting twice = new Meeting(MeetingTime.of(2021, 3, 1, 9, 0), 30, 3, "Twice",
+                Arrays.asList("twice@email.com", "twice@email.com"));
+        Meeting later = new Meeting(MeetingTime.of(2021, 3, 2, 9, 0), 30, 3, "Later",
+                Arrays.asList("twice@email.com"));
+        mMeetingApiService.createMeetings(Arrays.asList(twice, later));
+        assertEquals(Arrays.asList(twice, later), mMeetingApiService.getFilteredList(MeetingFilter.any().participant("twice@email.com").starts(0, Long.MAX_VALUE)));
+        mMeetingApiService.removeMeeting(twice);
+        assertEquals(Arrays.asList(later), mMeetingApiService.getFilteredList(MeetingFilter.any().participant("twice@email.com").starts(0, Long.MAX_VALUE)));
+        mMeetingApiService.removeMeeting(later);
+
+        MeetingApiService reference = new MeetingApiServiceDummy();
+        for (Meeting meeting : new MeetingGenerator(11).count(2000).participants(1, 6, 40, 1)) {
+            reference.createMeeting(meeting);
+            mMeetingApiService.createMeeting(meeting);
+        }
+        List<Meeting> meetings = new ArrayList<>(reference.getMeetings());
+        for (int i = 0; i < 600; i += 3) {
+            reference.removeMeeting(meetings.get(i));
+            mMeetingApiService.removeMeeting(meetings.get(i));
+        }
+        for (int person = 0; person < 40; person++) {
+            String email = MeetingGenerator.email(person);
+            long from = MeetingTime.of(2021, 1 + person % 12, 1, 0, 0);
+            assertEquals(reference.getFilteredList(MeetingFilter.any().participant(email).starts(from, from + 40 * MeetingTime.MINUTES_PER_DAY)),
+                    mMeetingApiService.getFilteredList(MeetingFilter.any().participant(email).starts(from, from + 40 * MeetingTime.MINUTES_PER_DAY)));
+            assertEquals(reference.getFilteredList(MeetingFilter.any().participant(email).starts(0, Long.MAX_VALUE)),
+                    mMeetingApiService.getFilteredList(MeetingFilter.any().participant(email).starts(0, Long.MAX_VALUE)));
+        }
+    }
+
+    @Test
+    public void searchMeetingsWithSuccess() {
+        List<Meeting> defaults = mMeetingApiService.getMeetings();
+        assertEquals(Arrays.asList(defaults.get(0), defaults.get(9)), mMeetingApiService.searchMeetings("reunion1", 2));
+        assertEquals(Arrays.asList(defaults.get(2), defaults.get(5)), mMeetingApiService.searchMeetings("REUNION NINA@EM BO", 2));
+        assertEquals(0, mMeetingApiService.searchMeetings(" - ", 10).size());
+
+        MeetingApiService reference = new MeetingApiServiceDummy();
+        reference.removeMeeting(defaults.get(0));
+        mMeetingApiService.removeMeeting(defaults.get(0));
+        for (Meeting meeting : new MeetingGenerator(5).count(3000).participants(1, 4, 200, 0.8)) {
+            reference.createMeeting(meeting);
+            mMeetingApiService.createMeeting(meeting);
+        }
+        List<Meeting> meetings = new ArrayList<>(reference.getMeetings());
+        for (int i = 0; i < meetings.size(); i += 7) {
+            reference.removeMeeting(meetings.get(i));
+            mMeetingApiService.removeMeeting(meetings.get(i));
+        }
+        for (String query : Arrays.asList("r", "reunion1", "reunion12", "reunion125", "person1", "person12 reunion2",
+                "email com", "jean", "jean reunion5", "unknown", "reunion7 person3")) {
+            for (int limit : new int[]{1, 50, 10000})
+                assertEquals(query, reference.searchMeetings(query, limit), mMeetingApiService.searchMeetings(query, limit));
+        }
+    }
+
+    @Test
+    public void meetingPagesByStartWithSuccess() {
+        MeetingApiService reference = new MeetingApiServiceDummy();
+        for (Meeting meeting : new MeetingGenerator(17).count(1500).days(MeetingTime.toEpochDay(2021, 2, 1), 30)) {
+            reference.createMeeting(meeting);
+            mMeetingApiService.createMeeting(meeting);
+        }
+        List<Meeting> meetings = new ArrayList<>(reference.getMeetings());
+        for (int i = 0; i < meetings.size(); i += 5) {
+            reference.removeMeeting(meetings.get(i));
+            mMeetingApiService.removeMeeting(meetings.get(i));
+        }
+
+        // Walking pages forward by key then backward by key gives the whole list sorted by time
+        List<Meeting> sorted = reference.getMeetingsByStart(0, Integer.MAX_VALUE);
+        List<Meeting> walked = new ArrayList<>();
+        List<Meeting> page = mMeetingApiService.getMeetingsAfter(Long.MIN_VALUE, 0, 50);
+        while (!page.isEmpty()) {
+            walked.addAll(page);
+            Meeting last = page.get(page.size() - 1);
+            page = mMeetingApiService.getMeetingsAfter(last.getStart(), last.getId(), 50);
+        }
+        assertEquals(sorted, walked);
+        for (int i = 1; i < sorted.size(); i++)
+            assertTrue(sorted.get(i - 1).getStart() <= sorted.get(i).getStart());
+        walked.clear();
+        page = mMeetingApiService.getMeetingsBefore(Long.MAX_VALUE, 0, 64);
+        while (!page.isEmpty()) {
+            walked.addAll(0, page);
+            page = mMeetingApiService.getMeetingsBefore(page.get(0).getStart(), page.get(0).getId(), 64);
+        }
+        assertEquals(sorted, walked);
+
+        for (int position : new int[]{-3, 0, 1, 77, sorted.size() - 10, sorted.size(), sorted.size() + 5})
+            assertEquals(reference.getMeetingsByStart(position, 20), mMeetingApiService.getMeetingsByStart(position, 20));
+        Meeting key = sorted.get(300);
+        assertEquals(sorted.subList(301, 321), mMeetingApiService.getMeetingsAfter(key.getStart(), key.getId(), 20));
+        assertEquals(sorted.subList(280, 300), mMeetingApiService.getMeetingsBefore(key.getStart(), key.getId(), 20));
+        assertEquals(reference.getMeetingsAfter(key.getStart(), key.getId(), 20), mMeetingApiService.getMeetingsAfter(key.getStart(), key.getId(), 20));
+    }
+
+    @Test
+    public void filterMeetingsWithSuccess() {
+        MeetingApiService reference = new MeetingApiServiceDummy();
+        int firstDay = MeetingTime.toEpochDay(2021, 2, 1);
+        for (Meeting meeting : new MeetingGenerator(23).count(2000).days(firstDay, 60)) {
+            reference.createMeeting(meeting);
+            mMeetingApiService.createMeeting(meeting);
+        }
+
+        // Each filter is best served by another index: rooms and days, days, participant, none
+        MeetingFilter[] filters = {
+                MeetingFilter.any().rooms(3, 1).days(firstDay + 2, firstDay + 4),
+                MeetingFilter.any().days(firstDay + 10, firstDay + 11).subject("union1"),
+                MeetingFilter.any().participant(MeetingGenerator.email(3)).rooms(2, 5, 7),
+                MeetingFilter.any().subject("REUNION2"),
+                MeetingFilter.any().participant("nobody@email.com"),
+                MeetingFilter.any().rooms(1).days(firstDay, firstDay)
+        };
+        for (MeetingFilter filter : filters) {
+            List<Meeting> expected = reference.getFilteredList(filter);
+            assertEquals(expected, mMeetingApiService.getFilteredList(filter));
+            for (Meeting meeting : expected)
+                assertTrue(filter.matches(meeting));
+        }
+        assertFalse(reference.getFilteredList(filters[0]).isEmpty());
+        assertEquals(MeetingFilter.any().rooms(1, 3), MeetingFilter.any().rooms(3, 1));
+        assertEquals(mMeetingApiService.getFilteredList(roomDay(1, firstDay)).size(), mMeetingApiService.getFilteredList(filters[5]).size());
+    }
+
+    @Test
+    public void cachedFilterWithSuccess() {
+        MeetingApiServiceCached cached = new MeetingApiServiceCached(mMeetingApiService, 2);
+        int day = MeetingTime.toEpochDay(2021, 2, 1);
+        MeetingFilter room1 = MeetingFilter.any().rooms(1).days(day, day);
+        MeetingFilter room2 = MeetingFilter.any().rooms(2).days(day, day + 1);
+        List<Meeting> expected = mMeetingApiService.getFilteredList(room1);
+        assertEquals(expected, cached.getFilteredList(room1));
+        assertEquals(expected, cached.getFilteredList(MeetingFilter.any().days(day, day).rooms(1)));
+        assertEquals(1, cached.getMissCount());
+        assertEquals(1, cached.getHitCount());
+
+        // A meeting of room 2 leaves the result of room 1 cached
+        cached.getFilteredList(room2);
+        Meeting meeting = new Meeting(MeetingTime.of(2021, 2, 2, 8, 0), 30, 2, "Reunion Z",
+                Arrays.asList("alex@email.com"));
+        cached.createMeeting(meeting);
+        assertEquals(1, cached.getInvalidationCount());
+        assertEquals(expected, cached.getFilteredList(room1));
+        assertEquals(2, cached.getHitCount());
+        assertTrue(cached.getFilteredList(room2).contains(meeting));
+        assertEquals(3, cached.getMissCount());
+        cached.removeMeeting(meeting);
+        assertFalse(cached.getFilteredList(room2).contains(meeting));
+
+        // Least recently used results are dropped beyond the capacity
+        cached.getFilteredList(MeetingFilter.any().rooms(3));
+        int misses = cached.getMissCount();
+        cached.getFilteredList(room1);
+        assertEquals(misses + 1, cached.getMissCount());
+
+        // A view opens on the cached result and follows the changes made through the cache
+        int hits = cached.getHitCount();
+        MeetingView view = cached.observe(room1, new IMeetingViewListener() {
+            @Override
+            public void onMeetingInserted(int position, Meeting meeting) {
+            }
+
+            @Override
+            public void onMeetingRemoved(int position, Meeting meeting) {
+            }
+
+            @Override
+            public void onMeetingsChanged(MeetingChangeSet changes) {
+            }
+        });
+        assertEquals(hits + 1, cached.getHitCount());
+        Meeting inRoom1 = new Meeting(MeetingTime.of(2021, 2, 1, 7, 0), 30, 1, "Reunion Y",
+                Arrays.asList("alex@email.com"));
+        cached.createMeetings(Collections.singletonList(inRoom1));
+        assertEquals(cached.getFilteredList(room1), view.getMeetings());
+        assertTrue(view.getMeetings().contains(inRoom1));
+        view.close();
+    }
+
+    @Test
+    public void meetingViewFollowsChangesWithSuccess() {
+        int firstDay = MeetingTime.toEpochDay(2021, 2, 1);
+        MeetingFilter filter = MeetingFilter.any().rooms(2, 4).days(firstDay, firstDay + 9);
+        MeetingApiService[] services = {mMeetingApiService, new MeetingApiServiceDummy(),
+                new MeetingApiServiceCached(DI.getNewMeetingApiService())};
+        for (MeetingApiService service : services) {
+            // Replays the reported changes on a copy of the first content, as an adapter does
+            List<Meeting> shown = new ArrayList<>();
+            List<Integer> removedPositions = new ArrayList<>();
+            MeetingView view = service.observe(filter, new IMeetingViewListener() {
+                @Override
+                public void onMeetingInserted(int position, Meeting meeting) {
+                    shown.add(position, meeting);
+                }
+
+                @Override
+                public void onMeetingRemoved(int position, Meeting meeting) {
+                    assertEquals(shown.remove(position), meeting);
+                    removedPositions.add(position);
+                }
+
+                @Override
+                public void onMeetingsChanged(MeetingChangeSet changes) {
+                    List<Meeting> next = changes.applyTo(shown);
+                    shown.clear();
+                    shown.addAll(next);
+                }
+            });
+            shown.addAll(view.getMeetings());
+
+            List<Meeting> created = new MeetingGenerator(29).count(400).days(firstDay - 5, 20).toList();
+            for (Meeting meeting : created)
+                service.createMeeting(meeting);
+            assertEquals(service.getFilteredList(filter), shown);
+            assertEquals(shown, view.getMeetings());
+            for (int i = 0; i < created.size(); i += 3)
+                service.removeMeeting(created.get(i));
+            assertEquals(service.getFilteredList(filter), shown);
+            assertFalse(removedPositions.isEmpty());
+
+            view.close();
+            int size = shown.size();
+            for (Meeting meeting : created)
+                service.removeMeeting(meeting);
+            assertEquals(size, shown.size());
+        }
+    }
+
+    @Test
+    public void allMeetingsViewFollowsChangesWithSuccess() {
+        int firstDay = MeetingTime.toEpochDay(2021, 2, 1);
+        for (MeetingApiService service : new MeetingApiService[]{mMeetingApiService, new MeetingApiServiceDummy()}) {
+            // Replays the reported positions on a copy of every meeting by time, as the paging adapter does
+            List<Meeting> shown = new ArrayList<>();
+            MeetingView view = service.observe(MeetingFilter.any(), new IMeetingViewListener() {
+                @Override
+                public void onMeetingInserted(int position, Meeting meeting) {
+                    shown.add(position, meeting);
+                }
+
+                @Override
+                public void onMeetingRemoved(int position, Meeting meeting) {
+                    assertEquals(shown.remove(position), meeting);
+                }
+
+                @Override
+                public void onMeetingsChanged(MeetingChangeSet changes) {
+                    List<Meeting> next = changes.applyTo(shown);
+                    shown.clear();
+                    shown.addAll(next);
+                }
+            });
+            shown.addAll(service.getMeetingsByStart(0, view.size()));
+
+            List<Meeting> created = new MeetingGenerator(31).count(300).days(firstDay, 10).toList();
+            for (Meeting meeting : created.subList(0, 100))
+                service.createMeeting(meeting);
+            service.applyBatch(new MeetingBatch().createAll(created.subList(100, 300)).removeAll(created.subList(0, 50)));
+            for (Meeting meeting : created.subList(50, 100))
+                service.removeMeeting(meeting);
+            assertEquals(service.getMeetings().size(), view.size());
+            assertEquals(service.getMeetingsByStart(0, view.size()), shown);
+
+            view.close();
+            service.applyBatch(new MeetingBatch().removeAll(created.subList(100, 300)));
+            assertEquals(service.getMeetings().size() + 200, shown.size());
+        }
+    }
+
+    @Test
+    public void concurrentServiceUnderLoadWithSuccess() throws InterruptedException, IOException {
+        // Saved as in the application, synced after each change under the read lock
+        File directory = mTemporaryFolder.newFolder();
+        MeetingApiServicePersistent persistent = new MeetingApiServicePersistent(directory);
+        persistent.setFlushDeferred(true);
+        MeetingApiServiceConcurrent service = new MeetingApiServiceConcurrent(new MeetingApiServiceCached(persistent), persistent::flush);
+        int firstDay = MeetingTime.toEpochDay(2021, 2, 1);
+        MeetingFilter filter = MeetingFilter.any().rooms(1, 2).days(firstDay, firstDay + 20);
+        int writers = 2;
+        int readers = 4;
+        List<List<Meeting>> created = new ArrayList<>();
+        for (int w = 0; w < writers; w++)
+            created.add(new MeetingGenerator(100 + w).count(1000).days(firstDay, 30).toList());
+        List<Meeting> imported = new MeetingGenerator(200).count(MeetingTransfer.IMPORT_BATCH_SIZE * 8).days(firstDay, 30).toList();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch writersDone = new CountDownLatch(writers + 1);
+        List<Thread> threads = new ArrayList<>();
+
+        // An import creates its meetings by batches meanwhile
+        threads.add(new Thread(() -> {
+            try {
+                for (int i = 0; i < imported.size(); i += MeetingTransfer.IMPORT_BATCH_SIZE)
+                    service.createMeetings(imported.subList(i, i + MeetingTransfer.IMPORT_BATCH_SIZE));
+            } catch (Throwable e) {
+                failures.add(e);
+            } finally {
+                writersDone.countDown();
+            }
+        }));
+
+        // Each writer creates its meetings and removes every other one
+        for (int w = 0; w < writers; w++) {
+            List<Meeting> meetings = created.get(w);
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < meetings.size(); i++) {
+                        service.createMeeting(meetings.get(i));
+                        if (i % 2 == 1)
+                            service.removeMeeting(meetings.get(i - 1));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                } finally {
+                    writersDone.countDown();
+                }
+            }));
+        }
+        // Readers check each snapshot and query result is consistent while meetings change
+        for (int r = 0; r < readers; r++) {
+            threads.add(new Thread(() -> {
+                try {
+                    while (writing.get()) {
+                        List<Meeting> snapshot = service.getMeetings();
+                        int size = snapshot.size();
+                        Set<Integer> ids = new HashSet<>();
+                        for (Meeting meeting : snapshot)
+                            assertTrue(ids.add(meeting.getId()));
+                        assertEquals(size, snapshot.size());
+                        List<Meeting> filtered = service.getFilteredList(filter);
+                        for (int i = 1; i < filtered.size(); i++)
+                            assertTrue(filtered.get(i - 1).getStart() <= filtered.get(i).getStart());
+                        List<Meeting> page = service.getMeetingsByStart(size / 2, 50);
+                        assertTrue(page.size() <= 50);
+                        // Keyset pages follow each other in start order
+                        for (int p = 0; p < 3 && !page.isEmpty(); p++) {
+                            Meeting last = page.get(page.size() - 1);
+                            page = service.getMeetingsAfter(last.getStart(), last.getId(), 50);
+                            if (!page.isEmpty()) {
+                                Meeting next = page.get(0);
+                                assertTrue(last.getStart() < next.getStart()
+                                        || last.getStart() == next.getStart() && last.getId() < next.getId());
+                            }
+                        }
+                        MeetingView view = service.observe(filter, new IMeetingViewListener() {
+                            @Override
+                            public void onMeetingInserted(int position, Meeting meeting) {
+                            }
+
+                            @Override
+                            public void onMeetingRemoved(int position, Meeting meeting) {
+                            }
+
+                            @Override
+                            public void onMeetingsChanged(MeetingChangeSet changes) {
+                            }
+                        });
+                        for (Meeting meeting : view.getMeetings())
+                            assertTrue(filter.matches(meeting));
+                        view.close();
+                        service.searchMeetings("reunion1", 20);
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        for (Thread thread : threads)
+            thread.start();
+        assertTrue(writersDone.await(60, TimeUnit.SECONDS));
+        writing.set(false);
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(Collections.<Throwable>emptyList(), failures);
+
+        // The end state holds every meeting kept by the writers
+        MeetingApiService reference = new MeetingApiServiceDummy();
+        for (List<Meeting> meetings : created) {
+            for (int i = 1; i < meetings.size(); i += 2)
+                reference.createMeeting(meetings.get(i));
+        }
+        reference.createMeetings(imported);
+        assertEquals(reference.getMeetings().size(), service.getMeetings().size());
+        assertEquals(reference.getFilteredList(filter), service.getFilteredList(filter));
+        try {
+            service.getMeetings().remove(0);
+            fail();
+        } catch (UnsupportedOperationException expected) {
+            // Snapshots are read only
+        }
+        // Every change was flushed
+        persistent.close();
+        assertEquals(reference.getMeetings().size(), new MeetingApiServicePersistent(directory).getMeetings().size());
+    }
+
+    @Test
+    public void importExportWithSuccess() throws IOException {
+        List<Meeting> meetings = new MeetingGenerator(5).count(MeetingTransfer.BATCH_SIZE + 10).toList();
+        // Fields which need quoting, folding and more than one byte per character
+        meetings.add(new Meeting(MeetingTime.of(2021, 3, 1, 9, 30), 45, 7,
+                "Budget, \"Q2\"; r\u00e9union tr\u00e8s longue " + new String(new char[40]).replace('\0', '\u00e9'),
+                Arrays.asList("chlo\u00e9@lamzone.com", "zo\u00eb@lamzone.com")));
+        MeetingApiService source = new MeetingApiServiceIndexed(meetings);
+        List<Meeting> expected = source.getMeetingsByStart(0, meetings.size());
+
+        for (int format = 0; format < 2; format++) {
+            StringWriter out = new StringWriter();
+            MeetingWriter writer = format == 0 ? new MeetingCsvWriter(out) : new MeetingICalendarWriter(out);
+            assertEquals(meetings.size(), MeetingTransfer.exportMeetings(source, writer));
+
+            MeetingApiService target = new MeetingApiServiceIndexed(new ArrayList<>());
+            assertEquals(meetings.size(), MeetingTransfer.importMeetings(MeetingTransfer.reader(new StringReader(out.toString())), target));
+            List<Meeting> imported = target.getMeetingsByStart(0, meetings.size());
+            assertEquals(expected.size(), imported.size());
+            for (int i = 0; i < expected.size(); i++) {
+                Meeting a = expected.get(i);
+                Meeting b = imported.get(i);
+                assertEquals(a.getStart(), b.getStart());
+                assertEquals(a.getDuration(), b.getDuration());
+                assertEquals(a.getRoom(), b.getRoom());
+                assertEquals(a.getSubject(), b.getSubject());
+                assertEquals(a.getParticipants(), b.getParticipants());
+            }
+        }
+
+        // A malformed line stops the import after the batches read before it
+        StringWriter out = new StringWriter();
+        MeetingTransfer.exportMeetings(source, new MeetingCsvWriter(out));
+        String csv = out.toString();
+        int badLine = csv.split("\n", -1).length;
+        MeetingApiService target = new MeetingApiServiceIndexed(new ArrayList<>());
+        try {
+            MeetingTransfer.importMeetings(MeetingTransfer.reader(new StringReader(csv + "not a meeting\n")), target);
+            fail();
+        } catch (MeetingImportException e) {
+            int imported = meetings.size() / MeetingTransfer.IMPORT_BATCH_SIZE * MeetingTransfer.IMPORT_BATCH_SIZE;
+            assertEquals(imported, e.getImported());
+            assertEquals(badLine, e.getLine());
+            assertEquals(imported, target.getMeetings().size());
+        }
+
+        // A room storage cannot hold is refused rather than truncated
+        try {
+            new Meeting(MeetingTime.of(2021, 3, 1, 9, 30), 45, Meeting.MAX_ROOM + 1, "Too far", Collections.<String>emptyList());
+            fail();
+        } catch (IllegalArgumentException refused) {
+        }
+        out = new StringWriter();
+        MeetingTransfer.exportMeetings(new MeetingApiServiceIndexed(Collections.singletonList(new Meeting(
+                MeetingTime.of(2021, 3, 1, 9, 30), 45, 7, "Room", Collections.<String>emptyList()))), new MeetingCsvWriter(out));
+        String farRoom = out.toString().replace(",45,7,", ",45," + (Meeting.MAX_ROOM + 1) + ",");
+        try {
+            MeetingTransfer.importMeetings(MeetingTransfer.reader(new StringReader(farRoom)), target);
+            fail();
+        } catch (MeetingImportException e) {
+            assertEquals(0, e.getImported());
+            assertEquals(2, e.getLine());
+        }
+    }
+
+    @Test
+    public void batchWithSuccess() throws IOException {
+        int firstDay = MeetingTime.toEpochDay(2021, 2, 1);
+        MeetingFilter filter = MeetingFilter.any().rooms(2, 4).days(firstDay, firstDay + 9);
+        File directory = mTemporaryFolder.newFolder();
+        MeetingApiServicePersistent persistent = new MeetingApiServicePersistent(directory);
+        MeetingApiService[] services = {mMeetingApiService, new MeetingApiServiceDummy(), persistent,
+                new MeetingApiServiceConcurrent(new MeetingApiServiceCached(DI.getNewMeetingApiService()))};
+        for (MeetingApiService service : services) {
+            List<Meeting> shown = new ArrayList<>();
+            List<MeetingChangeSet> changeSets = new ArrayList<>();
+            MeetingView view = service.observe(filter, new IMeetingViewListener() {
+                @Override
+                public void onMeetingInserted(int position, Meeting meeting) {
+                    fail();
+                }
+
+                @Override
+                public void onMeetingRemoved(int position, Meeting meeting) {
+                    fail();
+                }
+
+                @Override
+                public void onMeetingsChanged(MeetingChangeSet changes) {
+                    changeSets.add(changes);
+                    List<Meeting> next = changes.applyTo(shown);
+                    shown.clear();
+                    shown.addAll(next);
+                }
+            });
+            shown.addAll(view.getMeetings());
+            service.getFilteredList(filter);
+
+            // Create many meetings, remove some stored ones, and create then remove one
+            List<Meeting> created = new MeetingGenerator(31).count(400).days(firstDay - 5, 20).toList();
+            List<Meeting> removed = new ArrayList<>(service.getMeetings().subList(0, 3));
+            Meeting dropped = created.get(0);
+            MeetingBatch batch = new MeetingBatch().createAll(created).removeAll(removed).remove(dropped);
+            int size = service.getMeetings().size();
+            service.applyBatch(batch);
+
+            assertEquals(1, changeSets.size());
+            assertEquals(size + created.size() - 1 - removed.size(), service.getMeetings().size());
+            assertNull(service.getMeeting(dropped.getId()));
+            for (Meeting meeting : removed)
+                assertNull(service.getMeeting(meeting.getId()));
+            assertEquals(service.getFilteredList(filter), shown);
+            assertEquals(shown, view.getMeetings());
+            assertEquals(service.getMeetings().size(), service.getMeetingsByStart(0, Integer.MAX_VALUE).size());
+            assertEquals(service.getMeetings().size(), service.searchMeetings("reunion", Integer.MAX_VALUE).size());
+
+            // Removing them all again is reported at once too
+            service.applyBatch(new MeetingBatch().removeAll(created));
+            assertEquals(2, changeSets.size());
+            assertEquals(size - removed.size(), service.getMeetings().size());
+            assertEquals(service.getMeetings().size(), service.searchMeetings("reunion", Integer.MAX_VALUE).size());
+            Meeting participantMeeting = created.get(1);
+            assertTrue(service.getFilteredList(MeetingFilter.any().participant(participantMeeting.getParticipants().get(0)))
+                    .indexOf(participantMeeting) < 0);
+            assertEquals(service.getFilteredList(filter), shown);
+            view.close();
+        }
+        persistent.close();
+        MeetingApiServicePersistent reopened = new MeetingApiServicePersistent(directory);
+        assertEquals(persistent.getMeetings().size(), reopened.getMeetings().size());
+        reopened.close();
+    }
+
+    @Test
+    public void archivePastMeetingsWithSuccess() throws IOException {
+        File file = new File(mTemporaryFolder.newFolder(), "archive");
+        long[] now = {MeetingTime.of(2021, 3, 1, 12, 0)};
+        List<Meeting> meetings = new MeetingGenerator(11).count(2000).days(MeetingTime.toEpochDay(2021, 1, 1), 120).toList();
+        MeetingApiService reference = new MeetingApiServiceIndexed(meetings);
+        MeetingArchive archive = new MeetingArchive(file);
+        MeetingApiServiceArchiving service = new MeetingApiServiceArchiving(new MeetingApiServiceIndexed(meetings), archive,
+                7, () -> now[0]);
+
+        // Nothing moves when the wrapper is created, meetings ended before the 22nd of February are
+        // archived by the first change of the day
+        assertEquals(0, archive.size());
+        assertEquals(meetings.size(), service.getMeetings().size());
+        long before = MeetingTime.of(2021, 2, 22, 0, 0);
+        service.createMeeting(new Meeting(now[0], 30, 1, "Reunion", Arrays.asList("a@lamzone.com")));
+        assertTrue(archive.size() > 0);
+        assertEquals(meetings.size() + 1, archive.size() + service.getMeetings().size());
+        for (Meeting meeting : service.getMeetings())
+            assertTrue(meeting.getEnd() > before);
+        for (Meeting meeting : archive.getMeetingsBetween(Long.MIN_VALUE, Long.MAX_VALUE))
+            assertTrue(meeting.getEnd() <= before);
+        assertEquals(0, service.archiveIfDue());
+
+        // The first change of a later day archives again
+        now[0] = MeetingTime.of(2021, 4, 1, 8, 0);
+        int archived = archive.size();
+        service.createMeeting(new Meeting(now[0], 30, 1, "Reunion", Arrays.asList("a@lamzone.com")));
+        assertTrue(archive.size() > archived);
+        assertEquals(meetings.size() + 2, archive.size() + service.getMeetings().size());
+
+        // The archive answers like the whole store for past meetings
+        MeetingFilter filter = MeetingFilter.any().rooms(2, 5)
+                .days(MeetingTime.toEpochDay(2021, 2, 1), MeetingTime.toEpochDay(2021, 2, 20));
+        assertEquals(reference.getFilteredList(filter), archive.getFilteredList(filter));
+        List<Meeting> paged = new ArrayList<>();
+        List<Meeting> page = archive.getMeetingsAfter(Long.MIN_VALUE, 0, 100);
+        while (!page.isEmpty()) {
+            paged.addAll(page);
+            Meeting last = page.get(page.size() - 1);
+            page = archive.getMeetingsAfter(last.getStart(), last.getId(), 100);
+        }
+        assertEquals(archive.getMeetingsBetween(Long.MIN_VALUE, Long.MAX_VALUE), paged);
+        assertEquals(paged.subList(paged.size() - 10, paged.size()),
+                archive.getMeetingsBefore(Long.MAX_VALUE, Integer.MAX_VALUE, 10));
+        Meeting first = paged.get(0);
+        assertEquals(first.getSubject(), archive.getMeeting(first.getId()).getSubject());
+        assertEquals(first.getParticipants(), archive.getMeeting(first.getId()).getParticipants());
+
+        // Removing an archived meeting removes it from the archive, which reopens as it was
+        service.removeMeeting(first);
+        assertNull(archive.getMeeting(first.getId()));
+        Meeting middle = paged.get(paged.size() / 2);
+        Meeting next = paged.get(paged.size() / 2 + 1);
+        service.removeMeeting(middle);
+        assertNull(archive.getMeeting(middle.getId()));
+        assertEquals(next.getParticipants(), archive.getMeeting(next.getId()).getParticipants());
+        assertEquals(next.getSubject(), archive.getMeeting(next.getId()).getSubject());
+        assertEquals(paged.size() - 2, archive.size());
+        MeetingArchive reopened = new MeetingArchive(file);
+        assertEquals(archive.size(), reopened.size());
+        assertEquals(archive.getMeetingsBetween(Long.MIN_VALUE, Long.MAX_VALUE), reopened.getMeetingsBetween(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void encodeMeetingsWithSuccess() {
+        List<Meeting> meetings = new MeetingGenerator(3).count(5000).toList();
+        Collections.sort(meetings, (a, b) -> Long.compare(a.getStart(), b.getStart()));
+        meetings.add(new Meeting(MeetingTime.of(1999, 12, 31, 23, 45), 15, 10, "R\u00e9union \u2603",
+                Arrays.asList("zo\u00eb@lamzone.com")));
+
+        byte[] data = MeetingCodec.encode(meetings);
+        List<Meeting> decoded = MeetingCodec.decode(data);
+        assertEquals(meetings.size(), decoded.size());
+        for (int i = 0; i < meetings.size(); i++) {
+            Meeting a = meetings.get(i);
+            Meeting b = decoded.get(i);
+            assertEquals(a.getId(), b.getId());
+            assertEquals(a.getStart(), b.getStart());
+            assertEquals(a.getDuration(), b.getDuration());
+            assertEquals(a.getRoom(), b.getRoom());
+            assertEquals(a.getSubject(), b.getSubject());
+            assertEquals(a.getParticipants(), b.getParticipants());
+        }
+        // Shared participants and sorted starts keep thousands of meetings far below the binder limit
+        assertTrue(data.length < 40 * meetings.size());
+        assertEquals(0, MeetingCodec.decode(MeetingCodec.encode(new ArrayList<>())).size());
+        try {
+            MeetingCodec.decode(Arrays.copyOf(data, data.length / 2));
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // Truncated data is rejected
+        }
+    }
 }
@@ -0,0 +1,213 @@
+package com.openclassroom.mareu.benchmark;
+
+import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.model.MeetingTime;
+import com.openclassroom.mareu.service.MeetingApiService;
+import com.openclassroom.mareu.service.MeetingApiServiceCached;
+import com.openclassroom.mareu.service.MeetingApiServiceDummy;
+import com.openclassroom.mareu.service.MeetingApiServiceIndexed;
+import com.openclassroom.mareu.service.MeetingApiServicePersistent;
+import com.openclassroom.mareu.service.MeetingBatch;
+import com.openclassroom.mareu.service.MeetingFilter;
+import com.openclassroom.mareu.service.MeetingGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every {@link MeetingApiService} operation against stores of 10k to 1M meetings. Each call uses
+ * the next of 1024 random stored meetings as its argument.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MeetingApiServiceBenchmark {
+    private static final int PROBES = 1024;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"indexed", "cached", "persistent", "dummy"})
+    public String service;
+
+    private MeetingApiService mService;
+    private File mDirectory;
+    private Meeting[] mProbes;
+    private int mNextProbe;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Meeting> meetings = new MeetingGenerator(42).count(size).toList();
+        switch (service) {
+            case "indexed":
+                mService = new MeetingApiServiceIndexed(meetings);
+                break;
+            case "cached":
+                mService = new MeetingApiServiceCached(new MeetingApiServiceIndexed(meetings));
+                break;
+            case "persistent":
+                mDirectory = Files.createTempDirectory("meetings").toFile();
+                // Saved as the first launch meetings of the store, straight into its snapshot
+                mService = new MeetingApiServicePersistent(mDirectory, meetings);
+                break;
+            case "dummy":
+                mService = new MeetingApiServiceDummy();
+                for (Meeting meeting : meetings)
+                    mService.createMeeting(meeting);
+                break;
+            default:
+                throw new IllegalArgumentException(service);
+        }
+        Random random = new Random(7);
+        mProbes = new Meeting[PROBES];
+        for (int i = 0; i < PROBES; i++)
+            mProbes[i] = meetings.get(random.nextInt(meetings.size()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (mService instanceof MeetingApiServicePersistent)
+            ((MeetingApiServicePersistent) mService).close();
+        if (mDirectory != null) {
+            for (File file : mDirectory.listFiles())
+                file.delete();
+            mDirectory.delete();
+        }
+    }
+
+    private Meeting nextProbe() {
+        return mProbes[mNextProbe++ & (PROBES - 1)];
+    }
+
+    @Benchmark
+    public List<Meeting> getFilteredList() {
+        Meeting probe = nextProbe();
+        return mService.getFilteredList(MeetingFilter.any().rooms(probe.getRoom()).days(probe.getDay(), probe.getDay()));
+    }
+
+    @Benchmark
+    public List<Meeting> getFilteredListBySpec() {
+        Meeting probe = nextProbe();
+        // Three rooms over a week, about the reach of the dialog
+        return mService.getFilteredList(MeetingFilter.any()
+                .rooms(probe.getRoom(), probe.getRoom() % 10 + 1, (probe.getRoom() + 4) % 10 + 1)
+                .days(probe.getDay(), probe.getDay() + 6));
+    }
+
+    @Benchmark
+    public List<Meeting> getFilteredListToggled() {
+        // Going back and forth between the rooms of a few probes over their week
+        Meeting probe = mProbes[mNextProbe++ & 3];
+        return mService.getFilteredList(MeetingFilter.any().rooms(probe.getRoom()).days(probe.getDay(), probe.getDay() + 6));
+    }
+
+    @Benchmark
+    public List<Meeting> getFilteredListByParticipant() {
+        Meeting probe = nextProbe();
+        return mService.getFilteredList(MeetingFilter.any().participant(probe.getParticipants().get(0)).subject("1"));
+    }
+
+    @Benchmark
+    public List<Meeting> getMeetingsBetween() {
+        long start = nextProbe().getStart();
+        return mService.getFilteredList(MeetingFilter.any().starts(start, start + MeetingTime.MINUTES_PER_DAY));
+    }
+
+    @Benchmark
+    public List<Meeting> getNextMeetings() {
+        return mService.getMeetingsAfter(nextProbe().getStart(), Integer.MIN_VALUE, 50);
+    }
+
+    @Benchmark
+    public List<Meeting> getMeetingsInTimeWindow() {
+        int day = nextProbe().getDay();
+        return mService.getFilteredList(MeetingFilter.any().days(day, day + 6).timeOfDay(14 * 60, 16 * 60));
+    }
+
+    @Benchmark
+    public List<Meeting> getConflicts() {
+        return mService.getConflicts(nextProbe());
+    }
+
+    @Benchmark
+    public List<Meeting> getParticipantMeetings() {
+        Meeting probe = nextProbe();
+        return mService.getFilteredList(MeetingFilter.any().participant(probe.getParticipants().get(0))
+                .starts(probe.getStart(), probe.getStart() + 7 * MeetingTime.MINUTES_PER_DAY));
+    }
+
+    @Benchmark
+    public List<Meeting> searchMeetings() {
+        Meeting probe = nextProbe();
+        // Typing the start of a subject word then of an attendee
+        return mService.searchMeetings(probe.getSubject().substring(0, 9) + " " + probe.getParticipants().get(0).substring(0, 7), 50);
+    }
+
+    @Benchmark
+    public List<Meeting> getMeetingsAfter() {
+        Meeting probe = nextProbe();
+        return mService.getMeetingsAfter(probe.getStart(), probe.getId(), 50);
+    }
+
+    @Benchmark
+    public List<Meeting> getMeetingsByStart() {
+        return mService.getMeetingsByStart(mNextProbe++ % size, 50);
+    }
+
+    @Benchmark
+    public Meeting getMeeting() {
+        return mService.getMeeting(nextProbe().getId());
+    }
+
+    @Benchmark
+    public int indexOfMeeting() {
+        return mService.indexOfMeeting(nextProbe());
+    }
+
+    @Benchmark
+    public int getMeetingsAt() {
+        List<Meeting> meetings = mService.getMeetings();
+        return meetings.get(mNextProbe++ % meetings.size()).getRoom();
+    }
+
+    @Benchmark
+    public Meeting createAndRemoveMeeting() {
+        Meeting probe = nextProbe();
+        Meeting meeting = new Meeting(probe.getStart(), probe.getDuration(), probe.getRoom(), probe.getSubject(),
+                probe.getParticipants());
+        mService.createMeeting(meeting);
+        mService.removeMeeting(meeting);
+        return meeting;
+    }
+
+    @Benchmark
+    public int createAndRemoveBatch() {
+        // A small import then its undo, each as one batch
+        List<Meeting> meetings = new ArrayList<>(64);
+        for (int i = 0; i < 64; i++) {
+            Meeting probe = nextProbe();
+            meetings.add(new Meeting(probe.getStart(), probe.getDuration(), probe.getRoom(), probe.getSubject(),
+                    probe.getParticipants()));
+        }
+        mService.applyBatch(new MeetingBatch().createAll(meetings));
+        mService.applyBatch(new MeetingBatch().removeAll(meetings));
+        return meetings.size();
+    }
+}
@@ -0,0 +1,104 @@
+package com.openclassroom.mareu.benchmark;
+
+import android.os.Parcel;
+
+import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.model.ParcelableMeetingList;
+import com.openclassroom.mareu.service.MeetingGenerator;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of a list of meetings sorted by start through a Parcel, reporting the parcel size:
+ * as a {@link ParcelableMeetingList}, as one parceled meeting after the other, and with every
+ * field written as a Parcel value, subject and participants as strings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MeetingListParcelBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int count;
+
+    private List<Meeting> mMeetings;
+    private Parcel mParcel;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        public long parcelBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            parcelBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        mMeetings = new MeetingGenerator(42).count(count).toList();
+        Collections.sort(mMeetings, (a, b) -> Long.compare(a.getStart(), b.getStart()));
+        mParcel = Parcel.obtain();
+    }
+
+    @Benchmark
+    public List<Meeting> compactList(Size size) {
+        mParcel.recycle();
+        new ParcelableMeetingList(mMeetings).writeToParcel(mParcel, 0);
+        size.parcelBytes = mParcel.dataSize();
+        mParcel.setDataPosition(0);
+        return ParcelableMeetingList.CREATOR.createFromParcel(mParcel).getMeetings();
+    }
+
+    @Benchmark
+    public List<Meeting> meetingByMeeting(Size size) {
+        mParcel.recycle();
+        mParcel.writeInt(mMeetings.size());
+        for (Meeting meeting : mMeetings)
+            meeting.writeToParcel(mParcel, 0);
+        size.parcelBytes = mParcel.dataSize();
+        mParcel.setDataPosition(0);
+        int count = mParcel.readInt();
+        List<Meeting> meetings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            meetings.add(Meeting.CREATOR.createFromParcel(mParcel));
+        return meetings;
+    }
+
+    @Benchmark
+    public List<Meeting> fieldByField(Size size) {
+        mParcel.recycle();
+        mParcel.writeInt(mMeetings.size());
+        for (Meeting meeting : mMeetings) {
+            mParcel.writeInt(meeting.getId());
+            mParcel.writeLong(meeting.getStart());
+            mParcel.writeInt(meeting.getDuration());
+            mParcel.writeInt(meeting.getRoom());
+            mParcel.writeString(meeting.getSubject());
+            mParcel.writeStringList(meeting.getParticipants());
+        }
+        size.parcelBytes = mParcel.dataSize();
+        mParcel.setDataPosition(0);
+        int count = mParcel.readInt();
+        List<Meeting> meetings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            meetings.add(new Meeting(mParcel.readInt(), mParcel.readLong(), mParcel.readInt(), mParcel.readInt(),
+                    mParcel.readString(), mParcel.createStringArrayList()));
+        }
+        return meetings;
+    }
+}
@@ -0,0 +1,76 @@
+package com.openclassroom.mareu.benchmark;
+
+import android.os.Parcel;
+
+import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.service.MeetingGenerator;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of one meeting through a Parcel, reporting the parcel size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MeetingParcelBenchmark {
+    @Param({"2", "8"})
+    public int participants;
+
+    private Meeting mMeeting;
+    private Parcel mParcel;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        public long parcelBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            parcelBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        for (Meeting meeting : new MeetingGenerator(42).count(100)) {
+            if (meeting.getParticipants().size() == participants) {
+                mMeeting = meeting;
+                break;
+            }
+        }
+        mParcel = Parcel.obtain();
+    }
+
+    @Benchmark
+    public Meeting roundTrip(Size size) {
+        mParcel.recycle();
+        mMeeting.writeToParcel(mParcel, 0);
+        size.parcelBytes = mParcel.dataSize();
+        mParcel.setDataPosition(0);
+        return Meeting.CREATOR.createFromParcel(mParcel);
+    }
+
+    /**
+     * Participants written as emails, as meetings were parceled before the participant dictionary.
+     */
+    @Benchmark
+    public List<String> roundTripParticipants() {
+        mParcel.recycle();
+        mParcel.writeStringList(mMeeting.getParticipants());
+        mParcel.setDataPosition(0);
+        return mParcel.createStringArrayList();
+    }
+}
@@ -0,0 +1,93 @@
+package com.openclassroom.mareu.benchmark;
+
+import com.openclassroom.mareu.model.Meeting;
+import com.openclassroom.mareu.service.MeetingApiService;
+import com.openclassroom.mareu.service.MeetingApiServiceIndexed;
+import com.openclassroom.mareu.service.MeetingGenerator;
+import com.openclassroom.mareu.service.transfer.MeetingCsvWriter;
+import com.openclassroom.mareu.service.transfer.MeetingICalendarWriter;
+import com.openclassroom.mareu.service.transfer.MeetingTransfer;
+import com.openclassroom.mareu.service.transfer.MeetingWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Import of a CSV or iCalendar export into an empty service, and export of a service to a writer
+ * dropping its output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MeetingTransferBenchmark {
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"csv", "ics"})
+    public String format;
+
+    private MeetingApiService mService;
+    private String mExport;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Meeting> meetings = new MeetingGenerator(42).count(size).toList();
+        mService = new MeetingApiServiceIndexed(meetings);
+        StringBuilder export = new StringBuilder();
+        MeetingTransfer.exportMeetings(mService, writer(new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) {
+                export.append(buffer, offset, length);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        }));
+        mExport = export.toString();
+    }
+
+    private MeetingWriter writer(Writer out) throws IOException {
+        return format.equals("csv") ? new MeetingCsvWriter(out) : new MeetingICalendarWriter(out);
+    }
+
+    @Benchmark
+    public int importMeetings() throws IOException {
+        MeetingApiService service = new MeetingApiServiceIndexed(new ArrayList<>());
+        return MeetingTransfer.importMeetings(MeetingTransfer.reader(new StringReader(mExport)), service);
+    }
+
+    @Benchmark
+    public int exportMeetings() throws IOException {
+        return MeetingTransfer.exportMeetings(mService, writer(new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) {
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        }));
+    }
+}
@@ -0,0 +1,190 @@
+package android.os;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JVM stand-in for the Android Parcel, see build.gradle. It follows the layout of the native
+ * implementation (4 byte aligned values, strings as UTF-16 with a length and a terminator) so
+ * that data sizes are comparable with a device.
+ */
+public final class Parcel {
+    private byte[] mData = new byte[256];
+    private int mSize;
+    private int mPosition;
+
+    private Parcel() {
+    }
+
+    public static Parcel obtain() {
+        return new Parcel();
+    }
+
+    public void recycle() {
+        mSize = 0;
+        mPosition = 0;
+    }
+
+    public int dataSize() {
+        return mSize;
+    }
+
+    public int dataPosition() {
+        return mPosition;
+    }
+
+    public void setDataPosition(int position) {
+        mPosition = position;
+    }
+
+    public byte[] marshall() {
+        return Arrays.copyOf(mData, mSize);
+    }
+
+    public void unmarshall(byte[] data, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(data, offset, mData, 0, length);
+        mSize = length;
+        mPosition = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > mData.length)
+            mData = Arrays.copyOf(mData, Math.max(capacity, mData.length * 2));
+    }
+
+    private int reserve(int length) {
+        int padded = (length + 3) & ~3;
+        ensureCapacity(mPosition + padded);
+        int position = mPosition;
+        mPosition += padded;
+        mSize = Math.max(mSize, mPosition);
+        return position;
+    }
+
+    private int consume(int length) {
+        int position = mPosition;
+        if (position + length > mSize)
+            throw new IllegalStateException("Read past the end of the parcel");
+        mPosition += (length + 3) & ~3;
+        return position;
+    }
+
+    public void writeInt(int value) {
+        int position = reserve(4);
+        mData[position] = (byte) value;
+        mData[position + 1] = (byte) (value >>> 8);
+        mData[position + 2] = (byte) (value >>> 16);
+        mData[position + 3] = (byte) (value >>> 24);
+    }
+
+    public int readInt() {
+        int position = consume(4);
+        return (mData[position] & 0xFF) | (mData[position + 1] & 0xFF) << 8
+                | (mData[position + 2] & 0xFF) << 16 | (mData[position + 3] & 0xFF) << 24;
+    }
+
+    public void writeLong(long value) {
+        writeInt((int) value);
+        writeInt((int) (value >>> 32));
+    }
+
+    public long readLong() {
+        return (readInt() & 0xFFFFFFFFL) | (long) readInt() << 32;
+    }
+
+    public void writeByte(byte value) {
+        writeInt(value);
+    }
+
+    public byte readByte() {
+        return (byte) readInt();
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeInt(-1);
+            return;
+        }
+        int length = value.length();
+        writeInt(length);
+        int position = reserve((length + 1) * 2);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            mData[position + i * 2] = (byte) c;
+            mData[position + i * 2 + 1] = (byte) (c >>> 8);
+        }
+        mData[position + length * 2] = 0;
+        mData[position + length * 2 + 1] = 0;
+    }
+
+    public String readString() {
+        int length = readInt();
+        if (length < 0)
+            return null;
+        int position = consume((length + 1) * 2);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++)
+            chars[i] = (char) ((mData[position + i * 2] & 0xFF) | (mData[position + i * 2 + 1] & 0xFF) << 8);
+        return new String(chars);
+    }
+
+    public void writeStringList(List<String> values) {
+        if (values == null) {
+            writeInt(-1);
+            return;
+        }
+        writeInt(values.size());
+        for (String value : values)
+            writeString(value);
+    }
+
+    public ArrayList<String> createStringArrayList() {
+        int size = readInt();
+        if (size < 0)
+            return null;
+        ArrayList<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            values.add(readString());
+        return values;
+    }
+
+    public void writeIntArray(int[] values) {
+        if (values == null) {
+            writeInt(-1);
+            return;
+        }
+        writeInt(values.length);
+        for (int value : values)
+            writeInt(value);
+    }
+
+    public int[] createIntArray() {
+        int length = readInt();
+        if (length < 0)
+            return null;
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++)
+            values[i] = readInt();
+        return values;
+    }
+
+    public void writeByteArray(byte[] values) {
+        if (values == null) {
+            writeInt(-1);
+            return;
+        }
+        writeInt(values.length);
+        int position = reserve(values.length);
+        System.arraycopy(values, 0, mData, position, values.length);
+    }
+
+    public byte[] createByteArray() {
+        int length = readInt();
+        if (length < 0)
+            return null;
+        int position = consume(length);
+        return Arrays.copyOfRange(mData, position, position + length);
+    }
+}
@@ -0,0 +1,16 @@
+package android.os;
+
+/**
+ * JVM stand-in for the Android interface of the same name, see build.gradle.
+ */
+public interface Parcelable {
+    int describeContents();
+
+    void writeToParcel(Parcel dest, int flags);
+
+    interface Creator<T> {
+        T createFromParcel(Parcel source);
+
+        T[] newArray(int size);
+    }
+}